@@ -0,0 +1,330 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.DirectionException;
+import support.graph.Graph;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+import support.graph.NoSuchEdgeException;
+import support.graph.NoSuchVertexException;
+
+/**
+ * This class defines a Graph that picks its own representation based on how
+ * dense it is. It starts out as an AdjacencyListGraph, which only pays for the
+ * edges that exist. Once the number of edges passes |V|^2 / DENSE_FRACTION it
+ * moves itself into an AdjacencyMatrixGraph, and once it drops below
+ * |V|^2 / SPARSE_FRACTION it moves back into lists. A graph with fewer than
+ * MIN_MATRIX_VERTICES vertices never becomes a matrix, and a matrix only goes
+ * back to lists once it is down to fewer than MAX_LIST_VERTICES vertices.
+ * Both pairs of thresholds leave a gap, which keeps a graph near a boundary
+ * from switching back and forth: after a switch, the density has to change
+ * fourfold or the number of vertices has to double or halve before the
+ * next one.
+ *
+ * Moving between representations keeps the same CS16Vertex and CS16Edge
+ * objects and the same vertex numbers, so anything holding on to them (or
+ * decorating by vertex number) is not affected by a switch.
+ *
+ * Every Graph method is handed to the current representation, so this graph
+ * behaves exactly like the other two.
+ */
+public class AdaptiveGraph<V> implements Graph<V> {
+
+    // switch to a matrix once |E| > |V|^2 / DENSE_FRACTION
+    private static final int DENSE_FRACTION = 8;
+    // switch back to lists once |E| < |V|^2 / SPARSE_FRACTION
+    private static final int SPARSE_FRACTION = 32;
+    // no switch to a matrix for fewer vertices than this, one tile of the matrix
+    private static final int MIN_MATRIX_VERTICES = 64;
+    // a matrix goes back to lists once it has fewer vertices than this
+    private static final int MAX_LIST_VERTICES = 32;
+
+    // the current representation, exactly one of these is not null
+    private AdjacencyListGraph<V> _lists;
+    private AdjacencyMatrixGraph<V> _matrix;
+    // boolean that keeps track of directedness of graph
+    private boolean _directed;
+
+    /**
+     * Constructor for the Graph, which starts out as adjacency lists.
+     *
+     * Takes in a boolean that represents whether the graph will be directed.
+     *
+     * This must run in O(1) time.
+     */
+    public AdaptiveGraph(boolean directed) {
+        _directed = directed; //set directed variable
+        _lists = new AdjacencyListGraph<V>(directed); //start sparse
+        _matrix = null;
+    }
+
+    /**
+     * Returns true if the graph is currently stored as an adjacency matrix.
+     *
+     * @return true for a matrix, false for adjacency lists
+     */
+    public boolean isMatrix() {
+        return _matrix != null;
+    }
+
+    /**
+     * Returns an iterator holding all the Vertices of the graph.
+     */
+    @Override
+    public Iterator<CS16Vertex<V>> vertices() {
+        return this.current().vertices();
+    }
+
+    /**
+     * Returns an iterator holding all the edges of the graph.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> edges() {
+        return this.current().edges();
+    }
+
+    /**
+     * Inserts a new Vertex into the Graph. Adding vertices makes the graph
+     * less dense, so this may move a matrix back into lists (or, once there
+     * are enough vertices, lists into a matrix).
+     *
+     * <p>
+     * This runs in amortized O(1) time, plus O(|V| + |E|) on the rare call
+     * that switches representation.
+     * </p>
+     */
+    @Override
+    public CS16Vertex<V> insertVertex(V vertElement) {
+        CS16Vertex<V> v = this.current().insertVertex(vertElement);
+        this.checkDensity(); //fewer edges per vertex now
+        return v;
+    }
+
+    /**
+     * Inserts a new Edge into the Graph, which may move lists into a matrix.
+     *
+     * <p>
+     * This runs in amortized O(1) time, plus O(|V| + |E|) on the rare call
+     * that switches representation.
+     * </p>
+     */
+    @Override
+    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement)
+            throws InvalidVertexException {
+        CS16Edge<V> e = this.current().insertEdge(v1, v2, edgeElement);
+        this.checkDensity(); //more edges per vertex now
+        return e;
+    }
+
+    /**
+     * Removes a Vertex and its edges from the Graph, which may change the
+     * representation.
+     */
+    @Override
+    public V removeVertex(CS16Vertex<V> vert) throws InvalidVertexException {
+        V element = this.current().removeVertex(vert);
+        this.checkDensity();
+        return element;
+    }
+
+    /**
+     * Removes an Edge from the Graph, which may move a matrix back into lists.
+     */
+    @Override
+    public Integer removeEdge(CS16Edge<V> edge) throws InvalidEdgeException {
+        Integer element = this.current().removeEdge(edge);
+        this.checkDensity(); //fewer edges per vertex now
+        return element;
+    }
+
+    /**
+     * Returns the edge that connects the two vertices.
+     */
+    @Override
+    public CS16Edge<V> connectingEdge(CS16Vertex<V> v1, CS16Vertex<V> v2)
+            throws InvalidVertexException, NoSuchEdgeException {
+        return this.current().connectingEdge(v1, v2);
+    }
+
+    /**
+     * Returns an Iterator over all the Edges that are incoming to this Vertex.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> incomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        return this.current().incomingEdges(vert);
+    }
+
+    /**
+     * Returns an Iterator of all the Edges that are outgoing from this vertex.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> outgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+        return this.current().outgoingEdges(vert);
+    }
+
+    /**
+     * Returns the number of Edges that are leaving from this Vertex. This
+     * only works on a directed graph.
+     */
+    @Override
+    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException, DirectionException {
+        return this.current().numOutgoingEdges(vert);
+    }
+
+    /**
+     * Returns the Vertex that is on the other side of Edge e opposite of Vertex
+     * v.
+     */
+    @Override
+    public CS16Vertex<V> opposite(CS16Vertex<V> vert, CS16Edge<V> edge)
+            throws InvalidVertexException, InvalidEdgeException, NoSuchVertexException {
+        return this.current().opposite(vert, edge);
+    }
+
+    /**
+     * Returns the two Vertices that the Edge e is connected to.
+     */
+    @Override
+    public List<CS16Vertex<V>> endVertices(CS16Edge<V> e) throws InvalidEdgeException {
+        return this.current().endVertices(e);
+    }
+
+    /**
+     * Returns true if there exists an Edge that starts from Vertex v1 and ends
+     * at Vertex v2.
+     */
+    @Override
+    public boolean areAdjacent(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
+        return this.current().areAdjacent(v1, v2);
+    }
+
+    /**
+     * Toggles the directedness of the graph. Both representations fold the
+     * edges the same way, so a later switch between them does not change
+     * which vertices are adjacent.
+     *
+     * @throws DirectionException
+     *             Thrown, with the graph left as it was, when going to
+     *             undirected while two vertices are linked both ways by two
+     *             different edges.
+     */
+    @Override
+    public void toggleDirected() throws DirectionException {
+        this.current().toggleDirected();
+        _directed = !_directed; //flip directedness
+    }
+
+    /**
+     * Clears all the vertices and edges from the graph. An empty graph is as
+     * sparse as it gets, so it always goes back to adjacency lists.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     */
+    @Override
+    public void clear() {
+        _lists = new AdjacencyListGraph<V>(_directed); //start sparse again
+        _matrix = null; //let the matrix go
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     */
+    @Override
+    public int getNumVertices() {
+        return this.current().getNumVertices();
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     */
+    public int getNumEdges() {
+        return (_matrix != null) ? _matrix.getNumEdges() : _lists.getNumEdges();
+    }
+
+    /**
+     * Returns the representation currently holding the graph.
+     */
+    private Graph<V> current() {
+        return (_matrix != null) ? _matrix : _lists;
+    }
+
+    /**
+     * Compares the number of edges to |V|^2 and moves the graph to the other
+     * representation if it crossed a threshold.
+     */
+    private void checkDensity() {
+        long numVertices = this.getNumVertices();
+        long square = numVertices * numVertices;
+        long numEdges = this.getNumEdges();
+
+        if(_matrix == null && numVertices >= MIN_MATRIX_VERTICES && numEdges > square / DENSE_FRACTION) {
+            this.toMatrix(); //dense enough for a matrix
+        }
+        else if(_matrix != null && (numVertices < MAX_LIST_VERTICES || numEdges < square / SPARSE_FRACTION)) {
+            this.toLists(); //sparse enough for lists
+        }
+    }
+
+    /**
+     * Moves every vertex and edge from the lists into a new matrix. Edges are
+     * copied cell by cell (the outgoing edges of every vertex), so the matrix
+     * ends up with exactly the same adjacencies.
+     */
+    private void toMatrix() {
+        AdjacencyMatrixGraph<V> matrix = new AdjacencyMatrixGraph<V>(_directed);
+        List<CS16Vertex<V>> vertices = this.vertexList();
+        for(CS16Vertex<V> v : vertices) {
+            matrix.adoptVertex(v);
+        }
+        for(CS16Vertex<V> v : vertices) {
+            Iterator<CS16Edge<V>> out = _lists.outgoingEdges(v);
+            while(out.hasNext()) {
+                CS16Edge<V> e = out.next();
+                matrix.adoptEdge(v, _lists.opposite(v, e), e);
+            }
+        }
+        matrix.restoreNumbering();
+        _matrix = matrix;
+        _lists = null; //let the lists go
+    }
+
+    /**
+     * Moves every vertex and edge from the matrix into new adjacency lists.
+     */
+    private void toLists() {
+        AdjacencyListGraph<V> lists = new AdjacencyListGraph<V>(_directed);
+        List<CS16Vertex<V>> vertices = this.vertexList();
+        for(CS16Vertex<V> v : vertices) {
+            lists.adoptVertex(v);
+        }
+        for(CS16Vertex<V> v : vertices) {
+            Iterator<CS16Edge<V>> out = _matrix.outgoingEdges(v);
+            while(out.hasNext()) {
+                CS16Edge<V> e = out.next();
+                lists.adoptEdge(v, _matrix.opposite(v, e), e);
+            }
+        }
+        lists.restoreNumbering();
+        _lists = lists;
+        _matrix = null; //let the matrix go
+    }
+
+    /**
+     * Returns the vertices of the current representation in a list.
+     */
+    private List<CS16Vertex<V>> vertexList() {
+        List<CS16Vertex<V>> vertices = new ArrayList<>();
+        Iterator<CS16Vertex<V>> it = this.current().vertices();
+        while(it.hasNext()) {
+            vertices.add(it.next());
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,649 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.DirectionException;
+import support.graph.Graph;
+import support.graph.GraphEdge;
+import support.graph.GraphVertex;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+import support.graph.NoSuchEdgeException;
+import support.graph.NoSuchVertexException;
+
+/**
+ * This class defines a Graph that tracks its edges through per-vertex
+ * adjacency lists instead of an adjacency matrix. Each vertex keeps one map of
+ * its outgoing edges and one map of its incoming edges, both keyed by the
+ * vertex on the other end, so memory only grows with the number of edges that
+ * actually exist.
+ *
+ * The lists follow the adjacencies of AdjacencyMatrixGraph exactly: in a
+ * directed graph the outgoing map of v1 holding v2 is the same as the matrix
+ * cell [v1][v2] being filled. An undirected edge is stored in both directions
+ * here, where the matrix keeps it once in its upper triangle, but both graphs
+ * give the same answers for every method, toggleDirected included.
+ *
+ * Vertex numbers are still handed out (and recycled through a stack) so that
+ * algorithms that index arrays by vertex number work on either graph.
+ */
+public class AdjacencyListGraph<V> implements Graph<V> {
+
+	// outgoing edges of each vertex, keyed by the vertex the edge goes to
+	private Map<CS16Vertex<V>, Map<CS16Vertex<V>, CS16Edge<V>>> _outgoing;
+	// incoming edges of each vertex, keyed by the vertex the edge comes from
+	private Map<CS16Vertex<V>, Map<CS16Vertex<V>, CS16Edge<V>>> _incoming;
+	// Sets to store the vertices and edges of your graph
+	private Set<CS16Vertex<V>> _vertices;
+	private Set<CS16Edge<V>> _edges;
+	//number of vertices
+	private int _numVertices;
+	// boolean that keeps track of directedness of graph
+	private boolean _directed;
+	//stack to store all numbers for vertices if used more than once
+	private Stack<Integer> _numStack;
+
+	/**
+	 * Constructor for the Graph, instantiates the adjacency maps and the Sets.
+	 *
+	 * Takes in a boolean that represents whether the graph will be directed.
+	 *
+	 * This must run in O(1) time.
+	 */
+	public AdjacencyListGraph(boolean directed) {
+		_outgoing = new HashMap<>(); //map of outgoing lists
+		_incoming = new HashMap<>(); //map of incoming lists
+		_numVertices = 0; //set to 0
+		_vertices = new HashSet<>(); //hashset for vertices
+		_edges = new HashSet<>(); //hashset for edges
+		_directed = directed; //set directed variable
+		_numStack = new Stack<>(); //stack for vertexNumbers
+	}
+
+	/**
+	 * Returns an iterator holding all the Vertices of the graph.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @return an Iterator containing the vertices of the Graph.
+	 */
+	@Override
+	public Iterator<CS16Vertex<V>> vertices() {
+		return _vertices.iterator(); //return iterator of vertices
+	}
+
+	/**
+	 * Returns an iterator holding all the edges of the graph.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @return an Iterator containing the edges of the Graph.
+	 */
+	@Override
+	public Iterator<CS16Edge<V>> edges() {
+		return _edges.iterator(); //return iterator of edges
+	}
+
+	/**
+	 * Inserts a new Vertex into the Graph. The vertex is given a unique number
+	 * (reusing the number of a removed vertex if there is one) and empty
+	 * outgoing and incoming lists.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param vertElement
+	 *            the element to be added to the graph as a vertex
+	 */
+	@Override
+	public CS16Vertex<V> insertVertex(V vertElement) {
+
+		CS16Vertex<V> v = new GraphVertex<V>(vertElement); //create new GraphVertex
+
+		//check numStack to see if number from that stack can be used as a vertexNum for new vertex to add
+		if(_numStack.size() != 0) {
+			v.setVertexNumber(_numStack.pop()); //pop from stack to add
+		}
+		else {
+			v.setVertexNumber(_numVertices); //else, set to numVertices
+		}
+		_numVertices++; //increment total
+
+		_vertices.add(v); //add to set
+		_outgoing.put(v, new HashMap<>()); //empty outgoing list
+		_incoming.put(v, new HashMap<>()); //empty incoming list
+
+		return v; //return vertex
+	}
+
+	/**
+	 * Inserts a new Edge into the Graph. If the graph is directed the edge is
+	 * only added to the outgoing list of the first vertex (and the incoming list
+	 * of the second). If the graph is undirected, it is added both ways.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param v1
+	 *            The first vertex of the edge connection.
+	 * @param v2
+	 *            The second vertex of the edge connection.
+	 * @param edgeElement
+	 *            The element of the newly inserted edge.
+	 * @return Returns the newly inserted Edge.
+	 * @throws InvalidVertexException
+	 *             Thrown when either Vertex is null.
+	 */
+	@Override
+	public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement)
+			throws InvalidVertexException {
+
+		if(v1 == null || v2 == null) { //checks vertices are valid (not null)
+			throw new InvalidVertexException("Invalid Vertex as parameter");
+		}
+
+		CS16Edge<V> e = new GraphEdge<V>(edgeElement); //creates a new edge
+
+		e.setVertexOne(v1); //sets the vertex1 of edge to v1
+		e.setVertexTwo(v2); //sets the vertex2 of edge to v2
+
+		_edges.add(e); //add to set
+
+		this.link(v1, v2, e); //edge from v1 to v2
+		if(!_directed) { //if undirected, also add edge from v2 to v1
+			this.link(v2, v1, e);
+		}
+
+		return e; //return edge
+	}
+
+	/**
+	 * Removes a Vertex from the graph. Only the edges in the vertex's own
+	 * outgoing and incoming lists are visited, and each one is unlinked from the
+	 * list of the vertex on the other end.
+	 *
+	 * <p>
+	 * This must run in O(deg(v)) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The Vertex to remove.
+	 * @return The element of the removed Vertex.
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is null.
+	 */
+	@Override
+	public V removeVertex(CS16Vertex<V> vert) throws InvalidVertexException {
+
+		if(vert == null) { //checks vertex is valid (not null)
+			throw new InvalidVertexException("Invalid Vertex being removed");
+		}
+
+		Map<CS16Vertex<V>, CS16Edge<V>> out = _outgoing.remove(vert); //outgoing list of vert
+		Map<CS16Vertex<V>, CS16Edge<V>> in = _incoming.remove(vert); //incoming list of vert
+
+		if(out != null) {
+			for(Map.Entry<CS16Vertex<V>, CS16Edge<V>> entry : out.entrySet()) { //edges leaving vert
+				Map<CS16Vertex<V>, CS16Edge<V>> otherIn = _incoming.get(entry.getKey());
+				if(otherIn != null) {
+					otherIn.remove(vert); //unlink from the other vertex's incoming list
+				}
+				_edges.remove(entry.getValue()); //remove from set
+			}
+		}
+		if(in != null) {
+			for(Map.Entry<CS16Vertex<V>, CS16Edge<V>> entry : in.entrySet()) { //edges entering vert
+				Map<CS16Vertex<V>, CS16Edge<V>> otherOut = _outgoing.get(entry.getKey());
+				if(otherOut != null) {
+					otherOut.remove(vert); //unlink from the other vertex's outgoing list
+				}
+				_edges.remove(entry.getValue()); //remove from set
+			}
+		}
+
+		_numStack.push(vert.getVertexNumber()); //push the vertex number onto stack
+		_vertices.remove(vert); //remove from set
+		_numVertices--; //decreasing num of vertices
+		return vert.element(); //return vertex element
+	}
+
+	/**
+	 * Removes an Edge from the Graph, unlinking it from the adjacency lists of
+	 * both of its vertices. Only the first to second direction is removed if
+	 * the graph is directed.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param edge
+	 *            The Edge to remove.
+	 * @return The element of the removed Edge.
+	 * @throws InvalidEdgeException
+	 *             Thrown when the Edge is null.
+	 */
+	@Override
+	public Integer removeEdge(CS16Edge<V> edge) throws InvalidEdgeException {
+
+		if(edge == null) { //check if edge is not null
+			throw new InvalidEdgeException("Invalid Edge to remove");
+		}
+
+		CS16Vertex<V> v1 = edge.getVertexOne(); //first connecting vertex
+		CS16Vertex<V> v2 = edge.getVertexTwo(); //second connecting vertex
+
+		this.unlink(v1, v2, edge); //remove edge from v1 to v2
+		if(!_directed) { //if undirected, also remove edge from v2 to v1
+			this.unlink(v2, v1, edge);
+		}
+
+		_edges.remove(edge); //remove from set
+
+		return edge.element(); //return the element of the removed edge
+	}
+
+	/**
+	 * Returns the edge that connects the two vertices, looked up in the
+	 * outgoing list of the first vertex. If the graph is undirected the edge
+	 * has to exist both ways, just like the matrix version.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param v1
+	 *            The first vertex that may be connected.
+	 * @param v2
+	 *            The second vertex that may be connected.
+	 * @return The edge that connects the first and second vertices.
+	 * @throws InvalidVertexException
+	 *             Thrown when either vertex is null.
+	 * @throws NoSuchEdgeException
+	 *             Thrown when no edge connects the vertices.
+	 */
+	@Override
+	public CS16Edge<V> connectingEdge(CS16Vertex<V> v1, CS16Vertex<V> v2)
+			throws InvalidVertexException, NoSuchEdgeException {
+
+		if(v1 == null || v2 == null) { //check if vertices are null
+			throw new InvalidVertexException("Invalid vertex in parameter");
+		}
+
+		if(!this.areAdjacent(v1, v2)) { //no edge between the two
+			throw new NoSuchEdgeException("No Such Edge Exists");
+		}
+
+		return _outgoing.get(v1).get(v2); //return edge in v1's outgoing list
+	}
+
+	/**
+	 * Returns an Iterator over all the Edges that are incoming to this Vertex.
+	 * The iterator is a copy, so edges can be removed while iterating.
+	 *
+	 * <p>
+	 * This must run in O(deg(v)) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The vertex to find the incoming edges on.
+	 * @return Returns an Iterator holding the incoming edges on v.
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is null.
+	 */
+	@Override
+	public Iterator<CS16Edge<V>> incomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+
+		if(vert == null) { //check if vertex is null
+			throw new InvalidVertexException("Invalid Vertex in parameter");
+		}
+
+		return this.copyOf(_incoming.get(vert)).iterator(); //return iterator of incoming list
+	}
+
+	/**
+	 * Returns an Iterator of all the Edges that are outgoing from this vertex.
+	 * The iterator is a copy, so edges can be removed while iterating.
+	 *
+	 * <p>
+	 * This must run in O(deg(v)) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The vertex to find the outgoing edges on.
+	 * @return Returns an Iterator holding the outgoing edges on v.
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is null.
+	 */
+	@Override
+	public Iterator<CS16Edge<V>> outgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+
+		if(vert == null) { //check if vertex is null
+			throw new InvalidVertexException("Invalid Vertex in parameter");
+		}
+
+		return this.copyOf(_outgoing.get(vert)).iterator(); //return iterator of outgoing list
+	}
+
+	/**
+	 * Returns an int of the number Edges that are leaving from this Vertex.
+	 * This should only work if called on a directed graph.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The vertex to to find the outgoing edges on.
+	 * @return an int
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is not valid.
+	 * @throws DirectionException
+	 *             Thrown when this method is called on an undirected graph.
+	 */
+	@Override
+	public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException, DirectionException {
+
+		if(!_directed) { //can't call method if undirected
+			throw new DirectionException("Graph is not directed!");
+		}
+		if(vert == null) { //check if vertex is null
+			throw new InvalidVertexException("Invalid Vertex in parameter");
+		}
+
+		Map<CS16Vertex<V>, CS16Edge<V>> out = _outgoing.get(vert); //outgoing list of vert
+		return out == null ? 0 : out.size(); //size of the list
+	}
+
+	/**
+	 * Returns an int of the number Edges that are coming into this Vertex.
+	 * This also works on an undirected graph, where every edge counts as
+	 * incoming on both of its vertices.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The vertex to to find the incoming edges on.
+	 * @return an int
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is not valid.
+	 */
+	public int numIncomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+
+		if(vert == null) { //check if vertex is null
+			throw new InvalidVertexException("Invalid Vertex in parameter");
+		}
+
+		Map<CS16Vertex<V>, CS16Edge<V>> in = _incoming.get(vert); //incoming list of vert
+		return in == null ? 0 : in.size(); //size of the list
+	}
+
+	/**
+	 * Returns the Vertex that is on the other side of Edge e opposite of Vertex
+	 * v. If the edge is not incident on v, then throw a NoSuchVertexException.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param vert
+	 *            The first vertex on Edge e.
+	 * @param edge
+	 *            The edge connecting Vertex v and the unknown opposite Vertex.
+	 * @return The opposite Vertex of v across Edge e.
+	 * @throws InvalidVertexException
+	 *             Thrown when the Vertex is not valid.
+	 * @throws InvalidEdgeException
+	 *             Thrown when the Edge is not valid.
+	 * @throws NoSuchVertexException
+	 *             Thrown when Edge e is not incident on v.
+	 */
+	@Override
+	public CS16Vertex<V> opposite(CS16Vertex<V> vert, CS16Edge<V> edge)
+			throws InvalidVertexException, InvalidEdgeException, NoSuchVertexException {
+
+		if(vert == null) { //checks if vertex is null
+			throw new InvalidVertexException("Invalid Vertex");
+		}
+		if(edge == null) { //checks if edge is null
+			throw new InvalidEdgeException("Invalid Edge");
+		}
+
+		//checks if edge's vertex is neither vertex1 or vertex2
+		if((edge.getVertexOne() != vert) && (edge.getVertexTwo() != vert)) {
+			throw new NoSuchVertexException("No such vertex for edge");
+		}
+
+		if(edge.getVertexOne() != vert) { //if not vertex1, then opposite is vertex1
+			return edge.getVertexOne();
+		}
+		return edge.getVertexTwo(); //else opposite is vertex2
+	}
+
+	/**
+	 * Returns the two Vertices that the Edge e is connected to.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param e
+	 *            The edge to find the connecting Vertex's on.
+	 * @return a list of Vertex's holding the two connecting vertices.
+	 * @throws InvalidEdgeException
+	 *             Thrown when the Edge e is null.
+	 */
+	@Override
+	public List<CS16Vertex<V>> endVertices(CS16Edge<V> e) throws InvalidEdgeException {
+
+		if(e == null) { //checks if edge is null
+			throw new InvalidEdgeException("Invalid edge");
+		}
+
+		List<CS16Vertex<V>> endVerticesList = new ArrayList<>(); //create arraylist of end vertices
+
+		endVerticesList.add(e.getVertexOne()); //store the first vertex in the list
+		endVerticesList.add(e.getVertexTwo()); //store the second vertex in the list
+
+		return endVerticesList; //return the list of endVertices
+	}
+
+	/**
+	 * Returns true if there exists an Edge that starts from Vertex v1 and ends
+	 * at Vertex v2. For an undirected graph the edge has to be present in both
+	 * directions.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 *
+	 * @param v1
+	 *            The first Vertex to test adjacency.
+	 * @param v2
+	 *            The second Vertex to test adjacency.
+	 * @return Returns true if the vertices are adjacent.
+	 * @throws InvalidVertexException
+	 *             Thrown if either vertex is null.
+	 */
+	@Override
+	public boolean areAdjacent(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
+
+		if(v1 == null || v2 == null) { //check if either vertex is null
+			throw new InvalidVertexException("Invalid vertex in parameter");
+		}
+
+		if(_directed) { //if graph is directed, only v1 to v2 matters
+			return this.hasLink(v1, v2);
+		}
+		return this.hasLink(v1, v2) && this.hasLink(v2, v1); //undirected needs both ways
+	}
+
+	/**
+	 * Toggles the directedness of the graph, folding the edges the same way
+	 * AdjacencyMatrixGraph does. Going to undirected links every edge the
+	 * other way as well, so a one-way edge becomes an edge between its two
+	 * vertices. Going to directed keeps both links, so each undirected edge
+	 * can still be followed both ways.
+	 *
+	 * <p>
+	 * This runs in O(|E|) time.
+	 * </p>
+	 *
+	 * @throws DirectionException
+	 *             Thrown, with the graph left as it was, when going to
+	 *             undirected while two vertices are linked both ways by two
+	 *             different edges, since only one edge can connect them.
+	 */
+	@Override
+	public void toggleDirected() throws DirectionException {
+		if(_directed) {
+			for(CS16Edge<V> e : _edges) { //check before anything is linked
+				CS16Edge<V> back = _outgoing.get(e.getVertexTwo()).get(e.getVertexOne());
+				if(back != null && back != e) {
+					throw new DirectionException("Two different edges link the same vertices both ways");
+				}
+			}
+			for(CS16Edge<V> e : _edges) { //follow every edge both ways
+				this.link(e.getVertexTwo(), e.getVertexOne(), e);
+			}
+		}
+		_directed = !_directed; //flip directedness
+	}
+
+	/**
+	 * Clears all the vertices and edges from the graph. Every collection is
+	 * replaced by a new empty one instead of being cleared, since clearing a
+	 * HashMap or HashSet walks its whole table.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 */
+	@Override
+	public void clear() {
+		_outgoing = new HashMap<>(); //drop all outgoing lists
+		_incoming = new HashMap<>(); //drop all incoming lists
+		_vertices = new HashSet<>(); //new vertices hashSet
+		_edges = new HashSet<>(); //new edges hashSet
+		_numVertices = 0; //set num vertices back to 0
+		_numStack = new Stack<>(); //new numStack
+	}
+
+	/**
+	 * Returns the number of edges in the graph.
+	 *
+	 * <p>
+	 * This must run in O(1) time.
+	 * </p>
+	 */
+	public int getNumEdges() {
+		return _edges.size(); //size of the edge set
+	}
+
+	/**
+	 * Puts an existing vertex into the graph, keeping its vertex number. This
+	 * is used by AdaptiveGraph when it moves a graph from one representation
+	 * to another; restoreNumbering has to be called once every vertex is in.
+	 */
+	void adoptVertex(CS16Vertex<V> v) {
+		_vertices.add(v); //add to set
+		_outgoing.put(v, new HashMap<>()); //empty outgoing list
+		_incoming.put(v, new HashMap<>()); //empty incoming list
+	}
+
+	/**
+	 * Puts an existing edge into the graph as going from one vertex to the
+	 * other, without creating a new edge object. Used by AdaptiveGraph.
+	 */
+	void adoptEdge(CS16Vertex<V> from, CS16Vertex<V> to, CS16Edge<V> e) {
+		_edges.add(e); //add to set
+		this.link(from, to, e);
+	}
+
+	/**
+	 * Rebuilds the vertex number stack after vertices were adopted, so that
+	 * the numbers not in use below the highest one are handed out first.
+	 */
+	void restoreNumbering() {
+		int max = -1; //highest vertex number in use
+		for(CS16Vertex<V> v : _vertices) {
+			max = Math.max(max, v.getVertexNumber());
+		}
+		boolean[] used = new boolean[max + 1];
+		for(CS16Vertex<V> v : _vertices) {
+			used[v.getVertexNumber()] = true;
+		}
+		_numStack = new Stack<>();
+		for(int i = max; i >= 0; i--) { //push free numbers, lowest ends on top
+			if(!used[i]) {
+				_numStack.push(i);
+			}
+		}
+		_numVertices = _vertices.size(); //numbers past max come from the count
+	}
+
+	/**
+	 * Returns the number of vertices in the graph.
+	 */
+	@Override
+	public int getNumVertices() {
+		return _numVertices; //return the instance variable for vertices
+	}
+
+	/**
+	 * Adds edge e to the outgoing list of from and the incoming list of to.
+	 */
+	private void link(CS16Vertex<V> from, CS16Vertex<V> to, CS16Edge<V> e) {
+		_outgoing.computeIfAbsent(from, k -> new HashMap<>()).put(to, e);
+		_incoming.computeIfAbsent(to, k -> new HashMap<>()).put(from, e);
+	}
+
+	/**
+	 * Removes edge e from the outgoing list of from and the incoming list of
+	 * to, if it is still stored there.
+	 */
+	private void unlink(CS16Vertex<V> from, CS16Vertex<V> to, CS16Edge<V> e) {
+		Map<CS16Vertex<V>, CS16Edge<V>> out = _outgoing.get(from);
+		if(out != null) {
+			out.remove(to, e);
+		}
+		Map<CS16Vertex<V>, CS16Edge<V>> in = _incoming.get(to);
+		if(in != null) {
+			in.remove(from, e);
+		}
+	}
+
+	/**
+	 * Returns true if there is an edge stored from one vertex to the other.
+	 */
+	private boolean hasLink(CS16Vertex<V> from, CS16Vertex<V> to) {
+		Map<CS16Vertex<V>, CS16Edge<V>> out = _outgoing.get(from);
+		return out != null && out.containsKey(to);
+	}
+
+	/**
+	 * Copies an adjacency list so callers can remove edges while iterating.
+	 */
+	private List<CS16Edge<V>> copyOf(Map<CS16Vertex<V>, CS16Edge<V>> list) {
+		if(list == null) { //vertex not in graph, no edges
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(list.values());
+	}
+}
@@ -1,592 +1,1266 @@
-package graph;
-
-import static support.graph.Constants.MAX_VERTICES;
-
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
-import java.util.Stack;
-
-import support.graph.CS16Edge;
-import support.graph.CS16Vertex;
-import support.graph.Graph;
-import support.graph.GraphEdge;
-import support.graph.GraphVertex;
-import support.graph.DirectionException;
-import support.graph.InvalidEdgeException;
-import support.graph.InvalidVertexException;
-import support.graph.NoSuchEdgeException;
-import support.graph.NoSuchVertexException;
-import support.graph.NodeSequence;
-    
-/**
- * This class defines a Graph that tracks its edges through the use of an
- * adjacency matrix. Please review the lecture slides and the book before
- * attempting to write this program. An adjacency matrix consists of a 2D array
- * of Vertices, with each vertex of the graph appearing in both dimensions.
- *
- * Since we are using an adjacency matrix, each vertex must have a 'number', so
- * that it can represent an index in one of the dimensional arrays. This
- * assignment is not as trivial as it may appear. Remember that your arrays have
- * a maximum index. Thus, you cannot just up the number for each vertex. Why
- * not? Think about what happens when you constantly add and delete new
- * vertices. You will soon exceed the size of your adjacency matrix array. Note
- * further that this number must be unique.
- * 
- * Make sure your AdjacencyMatrixGraph can be both directed and undirected!
- *
- * Good luck, and as always, start early, start today, start yesterday!
- */
-public class AdjacencyMatrixGraph<V> implements Graph<V> {
-
-    // The underlying data structure of your graph: the adjacency matrix
-    private CS16Edge<V>[][] _adjMatrix;
-    // Sets to store the vertices and edges of your graph
-    private Set<CS16Vertex<V>> _vertices;
-    private Set<CS16Edge<V>> _edges;
-    //number of vertices
-    private int _numVertices;
-    // boolean that keeps track of directedness of graph
-    private boolean _directed;
-    
-    //More Instance Variables
-    //stack to store all numbers for vertices if used more than once
-    private Stack<Integer> _numStack;
-    
-
-    /**
-     * Constructor for your Graph, where among other things, you will most
-     * likely want to instantiate your matrix array and your Sets.
-     *
-     * Takes in a boolean that represents whether the graph will be directed.
-     *
-     * This must run in O(1) time.
-     */
-    public AdjacencyMatrixGraph(boolean directed) {
-        _adjMatrix = this.makeEmptyEdgeArray(); //initialize the adjMatrix
-        _numVertices = 0;  //set to 0 
-        _vertices = new HashSet(); //hashset for vertices
-        _edges = new HashSet(); //hashset for edges
-        _directed = directed; //set directed variable
-        _numStack = new Stack<>(); //stack for vertexNumbers
-    }
-
-    /**
-     * Returns an iterator holding all the Vertices of the graph.
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     * * Note that the visualizer uses this method to display the graph's
-     * vertices, so you should implement it first.
-     *
-     * @return an Iterator containing the vertices of the Graph.
-     */
-    @Override
-    public Iterator<CS16Vertex<V>> vertices() {
-        return _vertices.iterator(); //return iterator of vertices
-    }
-
-    /**
-     * Returns an iterator holding all the edges of the graph.
-     *
-     * <p>
-     * This must run in O(|1|) time.
-     * </p>
-     *
-     * Note that the visualizer uses this method to display the graph's edges,
-     * so you should implement it first.
-     *
-     * @return an Iterator containing the edges of the Graph.
-     */
-    @Override
-    public Iterator<CS16Edge<V>> edges() {
-        return _edges.iterator(); //return iterator of vertices
-    }
-
-    /**
-     * Inserts a new Vertex into your Graph. You will want to first generate a
-     * unique number for your vertex that falls within the range of your
-     * adjacency array. You will then have to add the Vertex to your set of
-     * vertices.
-     *
-     * <p>
-     * You will not have to worry about the case where *more* than MAX_VERTICES
-     * vertices are in your graph. Your code should, however, be able to hold
-     * MAX_VERTICES vertices at any time.
-     * </p>
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     * 
-     * @param vertElement
-     *            the element to be added to the graph as a vertex
-     */
-    @Override
-    public CS16Vertex<V> insertVertex(V vertElement) {
-    	
-    	CS16Vertex<V> v = new GraphVertex<V>(vertElement); //create new GraphVertex
-    	
-    	//check numStack to see if number from that stack can be used as a vertexNum for new vertex to add
-    	if(_numStack.size() != 0) {
-    		v.setVertexNumber(_numStack.pop()); //pop from stack to add
-    	}
-    	else {
-    		v.setVertexNumber(_numVertices); //else, set to numVertices
-    	}
-    	_numVertices++; //increment total
-    	
-    	_vertices.add(v); //add to set
-    	
-        return v; //return vertex
-    }
-
-    /**
-     * Inserts a new Edge into your Graph. You need to update your adjacency
-     * matrix to reflect this new added Edge. In addition, the Edge needs to be
-     * added to the edge set. 
-     *
-     * If the graph is directed, you will only want an edge
-     * starting from the first vertex ending at the second vertex. If the graph is
-     * undirected, you will want an edge both ways.
-     * 
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     * 
-     * @param v1
-     *            The first vertex of the edge connection.
-     * @param v2
-     *            The second vertex of the edge connection.
-     * @param edgeElement
-     *            The element of the newly inserted edge.
-     * @return Returns the newly inserted Edge.
-     * @throws InvalidVertexException
-     *             Thrown when either Vertex is null.
-     */
-    @Override
-    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement)
-            throws InvalidVertexException {
-    	
-    	if(v1 == null || v2 == null) { //checks vertices are valid (not null)
-			throw new InvalidVertexException("Invalid Vertex as parameter"); //throws exception
-		}
-    	
-    	CS16Edge<V> e = new GraphEdge<V>(edgeElement); //creates a nwe edge
-    	
-    	e.setVertexOne(v1); //sets the vertex1 of edge to v1
-    	e.setVertexTwo(v2); //sets the vertex2 of edge to v2
-    	
-    	_edges.add(e); //add to set
-    	
-    	if(_directed) { //if directed
-    		//only add one edge in correct location in adj
-    		_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] = e; 
-    	}
-    	else {// if undirected
-    		//add edge in both locations in adj
-    		_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] = e;
-    		_adjMatrix[v2.getVertexNumber()][v1.getVertexNumber()] = e;
-    	}
-    
-        return e; //return edge
-    }
-
-    /**
-     * Removes a Vertex from your graph. You will first have to remove all edges
-     * that are connected to this Vertex. (Perhaps you can use other methods you
-     * will eventually write to make this easier?) Finally, remove the Vertex
-     * from the vertex set.
-     * <p>
-     * This must run in O(|V|) time.
-     * </p>
-     *
-     * @param vert
-     *            The Vertex to remove.
-     * @return The element of the removed Vertex.
-     * @throws InvalidVertexException
-     *             Thrown when the Vertex is null.
-     */
-    @Override
-    public V removeVertex(CS16Vertex<V> vert) throws InvalidVertexException {
-    	
-    	if(vert == null) {//checks vertex is valid (not null)
-    		throw new InvalidVertexException("Invalid Vertex being removed");
-    	}
-    	for(CS16Vertex<V> w: _vertices) { //loop through all vertices
-    		if(vert != w) { //if not the same
-    			if(this.areAdjacent(vert, w)) { //check if adjacent
-        			this.removeEdge(this.connectingEdge(vert, w)); //remove edge in order of checking
-        		}
-    			if(this.areAdjacent(w, vert)) { //check if adj opposite way
-        			this.removeEdge(this.connectingEdge(w, vert));  //remove edge in order of checking
-        		}
-    		}
-    		
-    	}
-    	
-       	_numStack.push(vert.getVertexNumber()); //push the vertex number onto stack
-    	_vertices.remove(vert); //remove from stack
-    	_numVertices--; //decreasing num of vertices
-        return vert.element(); //return vertex element
-    }
-
-    /**
-     * Removes an Edge from your Graph. You will want to remove all references
-     * to it from your adjacency matrix. Don't forget to remove it from the edge
-     * set. Make sure to remove only the correct edge if the graph is directed.
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     *
-     * @param edge
-     *            The Edge to remove.
-     * @return The element of the removed Edge.
-     * @throws InvalidEdgeException
-     *             Thrown when the Edge is null.
-     */
-    @Override
-    public Integer removeEdge(CS16Edge<V> edge) throws InvalidEdgeException {
-    	
-    	if(edge == null) {  //check if edge is not null
-    		throw new InvalidEdgeException("Invalid Edge to remove"); 
-    	}
-
-    	int v1 = edge.getVertexOne().getVertexNumber();  //get the vertexNum of first connecting vertex
-    	int v2 = edge.getVertexTwo().getVertexNumber(); //get the vertexNum of second connecting vertex
-
-    	
-    	if(_directed) { //if directed, set only correct edge to null
-    		_adjMatrix[v1][v2] = null;
-       	}
-    	else { //else undirected, set both edges to null in adjMatrix
-    		_adjMatrix[v1][v2] = null;
-    		_adjMatrix[v2][v1] = null;
-    	}
-    	
-    	_edges.remove(edge); //remove from set
-    	
-        return edge.element(); //returning after removing, possible problem?
-    }
-
-    /**
-     * Returns the edge that connects the two vertices. You will want to consult
-     * your adjacency matrix to see if they are connected. If so, return that
-     * edge, otherwise throw a NoSuchEdgeException.
-     * 
-     * If the graph is directed, then two nodes are connected if there is an
-     * edge from the first vertex to the second. 
-     * If the graph is undirected, then two nodes are connected if there is an
-     * edge from the first vertex to the second and vice versa. 
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     *
-     * @param v1
-     *            The first vertex that may be connected.
-     * @param v2
-     *            The second vertex that may be connected.
-     * @return The edge that connects the first and second vertices.
-     * @throws InvalidVertexException
-     *             Thrown when either vertex is null.
-     * @throws NoSuchEdgeException
-     *             Thrown when no edge connects the vertices.
-     */
-    @Override
-    public CS16Edge<V> connectingEdge(CS16Vertex<V> v1, CS16Vertex<V> v2)
-            throws InvalidVertexException, NoSuchEdgeException {
-    	
-    	if(v1 == null || v2 == null) { //check if vertices are null
-    		throw new InvalidVertexException("Invalid vertex in parameter");
-    	}
-    	
-    	
-    	if(_directed) { //if directed
-    		if(this.areAdjacent(v1,v2)) { //check if adj
-    			//if so, return the edge at that location
-    			return _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()];
-    		}
-    		else {
-    			throw new NoSuchEdgeException("No Such Edge Exists"); //throw exception since not adjacent
-    		}
-    	}
-    	else { //for undirected
-    		if(this.areAdjacent(v1,v2) && this.areAdjacent(v2,v1)) {  //if adj both ways
-    			return _adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()]; //return edge at location
-    		}
-    		else {
-    			throw new NoSuchEdgeException("No Such Edge Exists"); //throw exception since not adj
-    		}
-    	}	
-    }
-
-    /**
-     * Returns an Iterator over all the Edges that are incoming to this Vertex.
-     * <p>
-     * This must run in O(|V|) time;
-     * </p>
-     * 
-     *
-     * @param vert
-     *            The vertex to find the incoming edges on.
-     * @return Returns an Iterator holding the incoming edges on v.
-     * @throws InvalidVertexException
-     *             Thrown when the Vertex is null.
-     */
-    @Override
-    public Iterator<CS16Edge<V>> incomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
-    	
-    	if(vert == null) { //check if vertex is null
-    		throw new InvalidVertexException("Invalid Vertex in parameter");
-    	}
-    	
-    	List<CS16Edge<V>> listIncoming = new ArrayList<>(); //create list to store edges
-    	
-    	for(int i = 0; i < MAX_VERTICES; i++) { //loop through adjMatrix
-    		if(_adjMatrix[i][vert.getVertexNumber()] != null) { //if edge exists 
-    			listIncoming.add(_adjMatrix[i][vert.getVertexNumber()]); //add to list
-    		}
-    	}
-    	
-        return listIncoming.iterator(); //return iterator of list
-    }
-    
-    /**
-     * Returns an Iterator of all the Edges that are outgoing from this vertex.
-     * <p>
-     * This must run in O(|V|) time;
-     * </p>
-
-     * @param vert
-     *            The vertex to find the outgoing edges on.
-     * @return Returns an Iterator holding the outgoing edges on v.
-     * @throws InvalidVertexException
-     *             Thrown when the Vertex is null.
-     */
-    @Override
-    public Iterator<CS16Edge<V>> outgoingEdges(CS16Vertex vert) throws InvalidVertexException {
-    	
-    	if(vert == null) { //check if vertex is null
-    		throw new InvalidVertexException("Invalid Vertex in parameter");
-    	}
-    	
-    	List<CS16Edge<V>> listOutgoing = new ArrayList<>(); //list to store edges
-    	
-    	for(int i = 0; i < MAX_VERTICES; i++) { //loop through adjMatrix
-    		if(_adjMatrix[vert.getVertexNumber()][i] != null) { //if edge exists
-    			listOutgoing.add(_adjMatrix[vert.getVertexNumber()][i]); //add to list
-    		}
-    	}
-    
-        return listOutgoing.iterator(); //return iterator of list
-    }
-
-    /**
-     * Returns an int of the number Edges that are leaving from this Vertex. This should only
-     * work if called on a directed graph. This method will be used in MyPageRank.
-     * 
-     * @param vert
-     *            The vertex to to find the outgoing edges on.
-     * @return an int
-     * @throws InvalidVertexException
-     *             Thrown when the Vertex is not valid.
-     * @throws DirectionException
-     *             Thrown when this method is called on an undirected graph.
-     */
-    @Override
-    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException, DirectionException {
-        
-    	if(!_directed) { //can't call method if directed
-    		throw new DirectionException("Graph is not directed!");
-    	}
-    	if(vert == null) { //check if vertex is null
-    		throw new InvalidVertexException("Invalid Vertex in parameter");
-    	}
-    	
-    	int numOutgoingEdges = 0; //counter for outgoingEdges
-    	
-    	Iterator<CS16Edge<V>> listOutgoing = this.outgoingEdges(vert); //store outgoing edges in a list
-    	while(listOutgoing.hasNext()) { //iterate through outgoing edges
-    		numOutgoingEdges++; //increment counter
-    		listOutgoing.next();
-    	}
-    	
-    	return numOutgoingEdges; //return counter
-    }
-
-    /**
-     * Returns the Vertex that is on the other side of Edge e opposite of Vertex
-     * v. Consulting the adjacency matrix may result in a running time that is
-     * too high.
-     * 
-     * If the edge is not incident on v, then throw a NoSuchVertexException.
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     *
-     * @param vert
-     *            The first vertex on Edge e.
-     * @param edge
-     *            The edge connecting Vertex v and the unknown opposite Vertex.
-     * @return The opposite Vertex of v across Edge e.
-     * @throws InvalidVertexException
-     *             Thrown when the Vertex is not valid.
-     * @throws InvalidEdgeException
-     *             Thrown when the Edge is not valid.
-     * @throws NoSuchVertexException
-     *             Thrown when Edge e is not incident on v.
-     */
-    @Override
-    public CS16Vertex<V> opposite(CS16Vertex<V> vert, CS16Edge<V> edge)
-            throws InvalidVertexException, InvalidEdgeException, NoSuchVertexException {
-    	
-    	if(vert == null) { //checks if vertex is null
-    		throw new InvalidVertexException("Invalid Vertex");
-    	}
-    	if(edge == null) { //checks if edge is null
-    		throw new InvalidEdgeException("Invalid Edge");
-    	}
-    	
-    	CS16Vertex<V> opposite = null; //creates new opposite vertex to return 
-    	
-    	
-    	//checks if edge's vertex is neither vertex1 or vertex2
-    	if((edge.getVertexOne() != vert) && (edge.getVertexTwo() != vert)) { 
-    		throw new NoSuchVertexException("No such vertex for edge");
-    	}
-    	
-    	if(edge.getVertexOne() != vert) { //if not vertex1, then opposite is vertex2
-    		opposite = edge.getVertexOne();
-    	}
-    	else { //if not vertex2, then opposite is vertex1
-    		opposite = edge.getVertexTwo(); 
-    	}
-    	
-        return opposite; //return oppposite vertex
-    }
-
-    /**
-     * Returns the two Vertices that the Edge e is connected to.
-     * 
-     * Checking the adjacency matrix may be too costly for this method.
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     * 
-     * Note that the visualizer uses this method to display the graph's edges.
-     *
-     * @param e
-     *            The edge to find the connecting Vertex's on.
-     * @return a list of Vertex's holding the two connecting vertices.
-     * @throws InvalidEdgeException
-     *             Thrown when the Edge e is null.
-     */
-    @Override
-    public List<CS16Vertex<V>> endVertices(CS16Edge<V> e) throws InvalidEdgeException {
-    	
-    	if(e == null) { //checks if edge is null
-    		throw new InvalidEdgeException("Invalid edge");
-    	}
-    	
-    	List<CS16Vertex<V>> endVerticesList = new ArrayList<>(); //create arraylist of end vertices
-    	
-    	endVerticesList.add(e.getVertexOne()); //store the first vertex in the list
-    	endVerticesList.add(e.getVertexTwo()); //store the second vertex in the list
-    	
-        return endVerticesList; //return the list of endVertices
-    }
-
-    /**
-     * Returns true if there exists an Edge that starts from Vertex v1 and ends
-     * at Vertex v2 for both a directed and undirected graph. For a directed graph
-     * two vertices are adjacent if there is an edge from the first vertex to the 
-     * second vertex.
-     * 
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     * 
-     * @param v1
-     *            The first Vertex to test adjacency.
-     * @param v2
-     *            The second Vertex to test adjacency.
-     * @return Returns true if the vertices are adjacent.
-     * @throws InvalidVertexException
-     *             Thrown if either vertex is null.
-     */
-    @Override
-    public boolean areAdjacent(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
-    	
-    	if(v1 == null || v2 == null) { //check if either vertex is null
-    		throw new InvalidVertexException("Invalid vertex in parameter");
-    	}
-    	
-    	if(_directed) { //if graph is directed
-    		if(_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] != null) { // if its not a null edge
-    			return true; //return true that they are adjacent
-    		}
-    	}
-    	else {
-    		//if both locations in adjMatrix is not null
-    		if(_adjMatrix[v1.getVertexNumber()][v2.getVertexNumber()] != null && _adjMatrix[v2.getVertexNumber()][v1.getVertexNumber()] != null) {
-        		return true;  //return true that they are adjacent
-        	}
-    	}
-    	return false; //else remove false
-    }
-
-    /**
-     * Toggles the directedness of the graph.
-     */
-    @Override
-    public void toggleDirected() {
-    	if (_directed == true) { //if true, change to false
-    		_directed = false;
-    	}
-    	else {
-    		_directed = true; //else, change to true
-    	}
-    }
-
-    /**
-     * Clears all the vertices and edges from the graph. You will want to also
-     * clear the adjacency matrix. Remember the power of Java's garbage
-     * collection mechanism. If you re-instantiate something, the instance of
-     * what that Object used to be disappears.
-     *
-     * <p>
-     * This must run in O(1) time.
-     * </p>
-     */
-    @Override
-    public void clear() {
-    	
-    	_vertices.clear(); //clear vertices hashSet
-    	_edges.clear(); //clear edges hashSet
-    	_adjMatrix = this.makeEmptyEdgeArray(); //empty 2d array
-    	_numVertices = 0; //set num vertices back to 0
-    	_numStack.clear();  //clear the numStack
-    	
-    }
-
-    /**
-     * Returns the number of vertices in the graph.
-     */
-    @Override
-	public int getNumVertices() {
-		return _numVertices; //return the instance variable for vertices
-	}
-
-    // Do not change this method!
-    @SuppressWarnings("unchecked")
-    private CS16Edge<V>[][] makeEmptyEdgeArray() {
-        return new CS16Edge[MAX_VERTICES][MAX_VERTICES];
-    }
-}
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Stack;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.GraphEdge;
+import support.graph.GraphVertex;
+import support.graph.DirectionException;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+import support.graph.NoSuchEdgeException;
+import support.graph.NoSuchVertexException;
+import support.graph.NodeSequence;
+    
+/**
+ * This class defines a Graph that tracks its edges through the use of an
+ * adjacency matrix. Please review the lecture slides and the book before
+ * attempting to write this program. An adjacency matrix consists of a 2D array
+ * of Vertices, with each vertex of the graph appearing in both dimensions.
+ *
+ * Since we are using an adjacency matrix, each vertex must have a 'number', so
+ * that it can represent an index in one of the dimensional arrays. This
+ * assignment is not as trivial as it may appear. Numbers of removed vertices
+ * are reused, so the highest vertex number stays as low as possible. Note
+ * further that this number must be unique.
+ *
+ * The matrix is not one big MAX_VERTICES x MAX_VERTICES array. It is split
+ * into square tiles of TILE_SIZE x TILE_SIZE cells that are only allocated
+ * once an edge is stored in them, and the table of tiles grows (by doubling)
+ * when a vertex number no longer fits. Growing only copies the tile
+ * references, never the edges inside the tiles, so memory tracks the highest
+ * live vertex number and there is no ceiling on the number of vertices.
+ *
+ * Next to the edges, every tile keeps one long per row and one long per column
+ * with a bit set for each filled cell (TILE_SIZE is 64, so a tile row is
+ * exactly one long). Adjacency checks are a single bit probe, and row and
+ * column scans jump from one set bit to the next instead of looking at every
+ * empty cell.
+ *
+ * When the graph is undirected only the upper triangle of the matrix is used:
+ * the edge between i and j is stored once, at [min(i,j)][max(i,j)], so tiles
+ * below the diagonal are never allocated and each mutation writes one cell.
+ * The row of a vertex is then its stored row plus its stored column.
+ * toggleDirected converts between this packed layout and the full one.
+ *
+ * Each tile also keeps the weight of every edge as a plain int next to the
+ * edge itself (0 for a null element), so algorithms can read weights by
+ * vertex number, or from an EdgeCursor, without unboxing edge elements.
+ *
+ * Every tile is stamped with the epoch it was last written in. clear() just
+ * starts a new epoch: tiles from older epochs read as empty and are wiped the
+ * next time an edge is written into them, so the matrix memory is reused
+ * instead of being thrown away and reallocated. Until it is wiped, a stale
+ * tile still holds its old edges (and through them their vertices), so they
+ * cannot be garbage collected while this graph is alive.
+ * 
+ * Make sure your AdjacencyMatrixGraph can be both directed and undirected!
+ *
+ * Good luck, and as always, start early, start today, start yesterday!
+ */
+public class AdjacencyMatrixGraph<V> implements Graph<V> {
+
+    // number of bits in a tile index, tiles are TILE_SIZE x TILE_SIZE cells
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    // The underlying data structure of your graph: the adjacency matrix, stored
+    // as a square table of tiles, _adjMatrix[tileRow][tileCol] (null until used)
+    private Tile<V>[][] _adjMatrix;
+    // number of tiles along each side of the matrix
+    private int _tilesPerSide;
+    // current epoch, tiles stamped with an older epoch count as empty
+    private int _epoch;
+    // Sets to store the vertices and edges of your graph
+    private Set<CS16Vertex<V>> _vertices;
+    private Set<CS16Edge<V>> _edges;
+    //number of vertices
+    private int _numVertices;
+    // boolean that keeps track of directedness of graph
+    private boolean _directed;
+    
+    //More Instance Variables
+    //stack to store all numbers for vertices if used more than once
+    private Stack<Integer> _numStack;
+    //number of filled cells in the row and in the column of each vertex number
+    private int[] _outDegree;
+    private int[] _inDegree;
+    
+
+    /**
+     * Constructor for your Graph, where among other things, you will most
+     * likely want to instantiate your matrix array and your Sets.
+     *
+     * Takes in a boolean that represents whether the graph will be directed.
+     *
+     * This must run in O(1) time.
+     */
+    public AdjacencyMatrixGraph(boolean directed) {
+        _tilesPerSide = 1; //start with a single tile
+        _epoch = 0; //first epoch
+        _adjMatrix = this.makeEmptyTileTable(_tilesPerSide); //initialize the adjMatrix
+        _outDegree = new int[TILE_SIZE]; //out-degree of each vertex number
+        _inDegree = new int[TILE_SIZE]; //in-degree of each vertex number
+        _numVertices = 0;  //set to 0 
+        _vertices = new HashSet(); //hashset for vertices
+        _edges = new HashSet(); //hashset for edges
+        _directed = directed; //set directed variable
+        _numStack = new Stack<>(); //stack for vertexNumbers
+    }
+
+    /**
+     * Returns an iterator holding all the Vertices of the graph.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     * * Note that the visualizer uses this method to display the graph's
+     * vertices, so you should implement it first.
+     *
+     * @return an Iterator containing the vertices of the Graph.
+     */
+    @Override
+    public Iterator<CS16Vertex<V>> vertices() {
+        return _vertices.iterator(); //return iterator of vertices
+    }
+
+    /**
+     * Returns an iterator holding all the edges of the graph.
+     *
+     * <p>
+     * This must run in O(|1|) time.
+     * </p>
+     *
+     * Note that the visualizer uses this method to display the graph's edges,
+     * so you should implement it first.
+     *
+     * @return an Iterator containing the edges of the Graph.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> edges() {
+        return _edges.iterator(); //return iterator of vertices
+    }
+
+    /**
+     * Inserts a new Vertex into your Graph. You will want to first generate a
+     * unique number for your vertex that falls within the range of your
+     * adjacency array. You will then have to add the Vertex to your set of
+     * vertices.
+     *
+     * <p>
+     * There is no maximum number of vertices: if the new vertex number does not
+     * fit in the matrix, the table of tiles is doubled first.
+     * </p>
+     *
+     * <p>
+     * This must run in amortized O(1) time.
+     * </p>
+     * 
+     * @param vertElement
+     *            the element to be added to the graph as a vertex
+     */
+    @Override
+    public CS16Vertex<V> insertVertex(V vertElement) {
+    	
+    	CS16Vertex<V> v = new GraphVertex<V>(vertElement); //create new GraphVertex
+    	
+    	//check numStack to see if number from that stack can be used as a vertexNum for new vertex to add
+    	if(_numStack.size() != 0) {
+    		v.setVertexNumber(_numStack.pop()); //pop from stack to add
+    	}
+    	else {
+    		v.setVertexNumber(_numVertices); //else, set to numVertices
+    	}
+    	this.ensureCapacity(v.getVertexNumber()); //make sure the number fits in the matrix
+    	_outDegree[v.getVertexNumber()] = 0; //a number can come back after clear() with old counts
+    	_inDegree[v.getVertexNumber()] = 0;
+    	_numVertices++; //increment total
+    	
+    	_vertices.add(v); //add to set
+    	
+        return v; //return vertex
+    }
+
+    /**
+     * Inserts a new Edge into your Graph. You need to update your adjacency
+     * matrix to reflect this new added Edge. In addition, the Edge needs to be
+     * added to the edge set. 
+     *
+     * If the graph is directed, you will only want an edge
+     * starting from the first vertex ending at the second vertex. If the graph is
+     * undirected, the edge goes both ways but is stored in a single cell of the
+     * upper triangle.
+     * 
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     * 
+     * @param v1
+     *            The first vertex of the edge connection.
+     * @param v2
+     *            The second vertex of the edge connection.
+     * @param edgeElement
+     *            The element of the newly inserted edge.
+     * @return Returns the newly inserted Edge.
+     * @throws InvalidVertexException
+     *             Thrown when either Vertex is null.
+     */
+    @Override
+    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement)
+            throws InvalidVertexException {
+    	
+    	int weight = (edgeElement == null) ? 0 : edgeElement; //weight kept in the matrix
+    	return this.placeEdge(v1, v2, edgeElement, weight);
+    }
+
+    /**
+     * Inserts a new Edge with an int weight into your Graph. This works just
+     * like insertEdge with an Integer element, but the weight goes straight
+     * into the int weight store of the matrix. The edge element itself is
+     * still an Integer, as CS16Edge requires.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param v1
+     *            The first vertex of the edge connection.
+     * @param v2
+     *            The second vertex of the edge connection.
+     * @param weight
+     *            The weight of the newly inserted edge.
+     * @return Returns the newly inserted Edge.
+     * @throws InvalidVertexException
+     *             Thrown when either Vertex is null.
+     */
+    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, int weight)
+            throws InvalidVertexException {
+    	return this.placeEdge(v1, v2, Integer.valueOf(weight), weight);
+    }
+
+    /**
+     * Creates the edge between v1 and v2, adds it to the edge set and stores
+     * it, with its weight, in the matrix.
+     */
+    private CS16Edge<V> placeEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer edgeElement, int weight)
+            throws InvalidVertexException {
+    	
+    	if(v1 == null || v2 == null) { //checks vertices are valid (not null)
+			throw new InvalidVertexException("Invalid Vertex as parameter"); //throws exception
+		}
+    	
+    	CS16Edge<V> e = new GraphEdge<V>(edgeElement); //creates a nwe edge
+    	
+    	e.setVertexOne(v1); //sets the vertex1 of edge to v1
+    	e.setVertexTwo(v2); //sets the vertex2 of edge to v2
+    	
+    	_edges.add(e); //add to set
+    	
+    	//if directed, only one location; if undirected, setCell stores it once in the upper triangle
+    	this.setCell(v1.getVertexNumber(), v2.getVertexNumber(), e, weight);
+    
+        return e; //return edge
+    }
+
+    /**
+     * Returns true if there is an edge from the vertex numbered v1 to the
+     * vertex numbered v2 (either way if the graph is undirected).
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param v1
+     *            The vertex number of the first vertex.
+     * @param v2
+     *            The vertex number of the second vertex.
+     * @return Returns true if there is an edge.
+     */
+    public boolean hasEdge(int v1, int v2) {
+    	return this.hasCell(v1, v2);
+    }
+
+    /**
+     * Returns the weight of the edge from the vertex numbered v1 to the vertex
+     * numbered v2, read from the int weight store, without touching the edge.
+     * An edge with a null element has weight 0.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param v1
+     *            The vertex number of the first vertex.
+     * @param v2
+     *            The vertex number of the second vertex.
+     * @return The weight of the edge between them.
+     * @throws NoSuchEdgeException
+     *             Thrown when no edge connects the vertices.
+     */
+    public int weight(int v1, int v2) throws NoSuchEdgeException {
+    	if(!this.hasCell(v1, v2)) { //no edge between the two
+    		throw new NoSuchEdgeException("No Such Edge Exists");
+    	}
+    	return this.weightOr(v1, v2, 0);
+    }
+
+    /**
+     * Returns the weight of the edge from the vertex numbered v1 to the vertex
+     * numbered v2, or absent if there is no such edge. This is a single probe
+     * of the matrix, for algorithms that scan whole rows of weights.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param v1
+     *            The vertex number of the first vertex.
+     * @param v2
+     *            The vertex number of the second vertex.
+     * @param absent
+     *            The value returned when there is no edge.
+     * @return The weight of the edge between them, or absent.
+     */
+    public int weightOr(int v1, int v2, int absent) {
+    	if(!_directed && v1 > v2) { //undirected edges live in the upper triangle
+    		int swap = v1;
+    		v1 = v2;
+    		v2 = swap;
+    	}
+    	if(v1 >= this.capacity() || v2 >= this.capacity()) { //outside of the matrix
+    		return absent;
+    	}
+    	Tile<V> tile = this.tileAt(v1 >> TILE_SHIFT, v2 >> TILE_SHIFT);
+    	if(tile == null || (tile.rowBits[v1 & TILE_MASK] & (1L << (v2 & TILE_MASK))) == 0) { //empty cell
+    		return absent;
+    	}
+    	return tile.weights[((v1 & TILE_MASK) << TILE_SHIFT) | (v2 & TILE_MASK)];
+    }
+
+    /**
+     * Removes a Vertex from your graph. You will first have to remove all edges
+     * that are connected to this Vertex. Only the filled cells of the vertex's
+     * row and column are visited (using the bit words of the tiles), and each
+     * edge found is cleared and dropped from the edge set in the same pass.
+     * Finally, remove the Vertex from the vertex set.
+     * <p>
+     * This must run in O(|V|/64 + deg(v)) time.
+     * </p>
+     *
+     * @param vert
+     *            The Vertex to remove.
+     * @return The element of the removed Vertex.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is null.
+     */
+    @Override
+    public V removeVertex(CS16Vertex<V> vert) throws InvalidVertexException {
+    	
+    	if(vert == null) {//checks vertex is valid (not null)
+    		throw new InvalidVertexException("Invalid Vertex being removed");
+    	}
+    	this.clearLine(vert.getVertexNumber(), true); //remove all edges stored in its row
+    	this.clearLine(vert.getVertexNumber(), false); //remove all edges stored in its column
+    	
+       	_numStack.push(vert.getVertexNumber()); //push the vertex number onto stack
+    	_vertices.remove(vert); //remove from stack
+    	_numVertices--; //decreasing num of vertices
+        return vert.element(); //return vertex element
+    }
+
+    /**
+     * Removes an Edge from your Graph. You will want to remove all references
+     * to it from your adjacency matrix. Don't forget to remove it from the edge
+     * set. Make sure to remove only the correct edge if the graph is directed.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param edge
+     *            The Edge to remove.
+     * @return The element of the removed Edge.
+     * @throws InvalidEdgeException
+     *             Thrown when the Edge is null.
+     */
+    @Override
+    public Integer removeEdge(CS16Edge<V> edge) throws InvalidEdgeException {
+    	
+    	if(edge == null) {  //check if edge is not null
+    		throw new InvalidEdgeException("Invalid Edge to remove"); 
+    	}
+
+    	int v1 = edge.getVertexOne().getVertexNumber();  //get the vertexNum of first connecting vertex
+    	int v2 = edge.getVertexTwo().getVertexNumber(); //get the vertexNum of second connecting vertex
+
+    	
+    	//if directed, only the correct cell; if undirected, the single shared cell
+    	this.setCell(v1, v2, null, 0);
+    	
+    	_edges.remove(edge); //remove from set
+    	
+        return edge.element(); //returning after removing, possible problem?
+    }
+
+    /**
+     * Returns the edge that connects the two vertices. You will want to consult
+     * your adjacency matrix to see if they are connected. If so, return that
+     * edge, otherwise throw a NoSuchEdgeException.
+     * 
+     * If the graph is directed, then two nodes are connected if there is an
+     * edge from the first vertex to the second. 
+     * If the graph is undirected, then two nodes are connected if there is an
+     * edge from the first vertex to the second and vice versa. 
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param v1
+     *            The first vertex that may be connected.
+     * @param v2
+     *            The second vertex that may be connected.
+     * @return The edge that connects the first and second vertices.
+     * @throws InvalidVertexException
+     *             Thrown when either vertex is null.
+     * @throws NoSuchEdgeException
+     *             Thrown when no edge connects the vertices.
+     */
+    @Override
+    public CS16Edge<V> connectingEdge(CS16Vertex<V> v1, CS16Vertex<V> v2)
+            throws InvalidVertexException, NoSuchEdgeException {
+    	
+    	if(v1 == null || v2 == null) { //check if vertices are null
+    		throw new InvalidVertexException("Invalid vertex in parameter");
+    	}
+    	
+    	
+    	if(_directed) { //if directed
+    		if(this.areAdjacent(v1,v2)) { //check if adj
+    			//if so, return the edge at that location
+    			return this.getCell(v1.getVertexNumber(), v2.getVertexNumber());
+    		}
+    		else {
+    			throw new NoSuchEdgeException("No Such Edge Exists"); //throw exception since not adjacent
+    		}
+    	}
+    	else { //for undirected
+    		if(this.areAdjacent(v1,v2)) {  //one shared cell covers both ways
+    			return this.getCell(v1.getVertexNumber(), v2.getVertexNumber()); //return edge at location
+    		}
+    		else {
+    			throw new NoSuchEdgeException("No Such Edge Exists"); //throw exception since not adj
+    		}
+    	}	
+    }
+
+    /**
+     * Returns an Iterator over all the Edges that are incoming to this Vertex.
+     * The edges are not copied into a list: the returned cursor walks the
+     * column of the matrix lazily, one bit word at a time, so reading only the
+     * first edge does not pay for the whole column. Removing the edge that was
+     * just returned while iterating is allowed.
+     * <p>
+     * This must run in O(|V|) time to iterate fully;
+     * </p>
+     * 
+     *
+     * @param vert
+     *            The vertex to find the incoming edges on.
+     * @return Returns an Iterator holding the incoming edges on v.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is null.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> incomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+    	return new EdgeCursor(false).reset(vert); //new cursor on the column of vert
+    }
+    
+    /**
+     * Returns an Iterator of all the Edges that are outgoing from this vertex.
+     * Like incomingEdges, the returned cursor walks the row of the matrix
+     * lazily instead of building a list.
+     * <p>
+     * This must run in O(|V|) time to iterate fully;
+     * </p>
+
+     * @param vert
+     *            The vertex to find the outgoing edges on.
+     * @return Returns an Iterator holding the outgoing edges on v.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is null.
+     */
+    @Override
+    public Iterator<CS16Edge<V>> outgoingEdges(CS16Vertex vert) throws InvalidVertexException {
+    	return new EdgeCursor(true).reset(vert); //new cursor on the row of vert
+    }
+
+    /**
+     * Returns a cursor over incoming edges that is not placed on any vertex
+     * yet. Call reset(vertex) to walk the incoming edges of a vertex, and call
+     * it again to reuse the same cursor for the next vertex, so loops that scan
+     * many vertices do not allocate an iterator per vertex.
+     *
+     * @return a reusable cursor over incoming edges
+     */
+    public EdgeCursor newIncomingCursor() {
+    	return new EdgeCursor(false);
+    }
+
+    /**
+     * Returns a cursor over outgoing edges that is not placed on any vertex
+     * yet. See newIncomingCursor.
+     *
+     * @return a reusable cursor over outgoing edges
+     */
+    public EdgeCursor newOutgoingCursor() {
+    	return new EdgeCursor(true);
+    }
+
+    /**
+     * Returns an int of the number Edges that are leaving from this Vertex. This should only
+     * work if called on a directed graph. This method will be used in MyPageRank.
+     * 
+     * <p>
+     * This runs in O(1) time: the out-degree of every vertex is kept up to
+     * date whenever a cell of the matrix is filled or emptied.
+     * </p>
+     * 
+     * @param vert
+     *            The vertex to to find the outgoing edges on.
+     * @return an int
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is not valid.
+     * @throws DirectionException
+     *             Thrown when this method is called on an undirected graph.
+     */
+    @Override
+    public int numOutgoingEdges(CS16Vertex<V> vert) throws InvalidVertexException, DirectionException {
+        
+    	if(!_directed) { //can't call method if directed
+    		throw new DirectionException("Graph is not directed!");
+    	}
+    	if(vert == null) { //check if vertex is null
+    		throw new InvalidVertexException("Invalid Vertex in parameter");
+    	}
+    	
+    	int num = vert.getVertexNumber();
+    	return num < _outDegree.length ? _outDegree[num] : 0; //return counter
+    }
+
+    /**
+     * Returns an int of the number Edges that are coming into this Vertex.
+     * Unlike numOutgoingEdges this also works on an undirected graph, where
+     * every edge counts as incoming on both of its vertices (the same edges
+     * incomingEdges returns).
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param vert
+     *            The vertex to to find the incoming edges on.
+     * @return an int
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is not valid.
+     */
+    public int numIncomingEdges(CS16Vertex<V> vert) throws InvalidVertexException {
+
+    	if(vert == null) { //check if vertex is null
+    		throw new InvalidVertexException("Invalid Vertex in parameter");
+    	}
+
+    	int num = vert.getVertexNumber();
+    	return num < _inDegree.length ? _inDegree[num] : 0; //return counter
+    }
+
+    /**
+     * Returns the Vertex that is on the other side of Edge e opposite of Vertex
+     * v. Consulting the adjacency matrix may result in a running time that is
+     * too high.
+     * 
+     * If the edge is not incident on v, then throw a NoSuchVertexException.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     *
+     * @param vert
+     *            The first vertex on Edge e.
+     * @param edge
+     *            The edge connecting Vertex v and the unknown opposite Vertex.
+     * @return The opposite Vertex of v across Edge e.
+     * @throws InvalidVertexException
+     *             Thrown when the Vertex is not valid.
+     * @throws InvalidEdgeException
+     *             Thrown when the Edge is not valid.
+     * @throws NoSuchVertexException
+     *             Thrown when Edge e is not incident on v.
+     */
+    @Override
+    public CS16Vertex<V> opposite(CS16Vertex<V> vert, CS16Edge<V> edge)
+            throws InvalidVertexException, InvalidEdgeException, NoSuchVertexException {
+    	
+    	if(vert == null) { //checks if vertex is null
+    		throw new InvalidVertexException("Invalid Vertex");
+    	}
+    	if(edge == null) { //checks if edge is null
+    		throw new InvalidEdgeException("Invalid Edge");
+    	}
+    	
+    	CS16Vertex<V> opposite = null; //creates new opposite vertex to return 
+    	
+    	
+    	//checks if edge's vertex is neither vertex1 or vertex2
+    	if((edge.getVertexOne() != vert) && (edge.getVertexTwo() != vert)) { 
+    		throw new NoSuchVertexException("No such vertex for edge");
+    	}
+    	
+    	if(edge.getVertexOne() != vert) { //if not vertex1, then opposite is vertex2
+    		opposite = edge.getVertexOne();
+    	}
+    	else { //if not vertex2, then opposite is vertex1
+    		opposite = edge.getVertexTwo(); 
+    	}
+    	
+        return opposite; //return oppposite vertex
+    }
+
+    /**
+     * Returns the two Vertices that the Edge e is connected to.
+     * 
+     * Checking the adjacency matrix may be too costly for this method.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     * 
+     * Note that the visualizer uses this method to display the graph's edges.
+     *
+     * @param e
+     *            The edge to find the connecting Vertex's on.
+     * @return a list of Vertex's holding the two connecting vertices.
+     * @throws InvalidEdgeException
+     *             Thrown when the Edge e is null.
+     */
+    @Override
+    public List<CS16Vertex<V>> endVertices(CS16Edge<V> e) throws InvalidEdgeException {
+    	
+    	if(e == null) { //checks if edge is null
+    		throw new InvalidEdgeException("Invalid edge");
+    	}
+    	
+    	List<CS16Vertex<V>> endVerticesList = new ArrayList<>(); //create arraylist of end vertices
+    	
+    	endVerticesList.add(e.getVertexOne()); //store the first vertex in the list
+    	endVerticesList.add(e.getVertexTwo()); //store the second vertex in the list
+    	
+        return endVerticesList; //return the list of endVertices
+    }
+
+    /**
+     * Returns true if there exists an Edge that starts from Vertex v1 and ends
+     * at Vertex v2 for both a directed and undirected graph. For a directed graph
+     * two vertices are adjacent if there is an edge from the first vertex to the 
+     * second vertex.
+     * 
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     * 
+     * @param v1
+     *            The first Vertex to test adjacency.
+     * @param v2
+     *            The second Vertex to test adjacency.
+     * @return Returns true if the vertices are adjacent.
+     * @throws InvalidVertexException
+     *             Thrown if either vertex is null.
+     */
+    @Override
+    public boolean areAdjacent(CS16Vertex<V> v1, CS16Vertex<V> v2) throws InvalidVertexException {
+    	
+    	if(v1 == null || v2 == null) { //check if either vertex is null
+    		throw new InvalidVertexException("Invalid vertex in parameter");
+    	}
+    	
+    	//if directed, the cell from v1 to v2; if undirected, the single shared cell
+    	return this.hasCell(v1.getVertexNumber(), v2.getVertexNumber());
+    }
+
+    /**
+     * Toggles the directedness of the graph, converting the matrix between
+     * the packed upper triangle used when undirected and the full layout used
+     * when directed.
+     *
+     * Going to directed mirrors every edge into the lower triangle, so each
+     * undirected edge can still be followed both ways. Going to undirected
+     * moves every edge of the lower triangle up to its mirror cell, so a
+     * one-way edge becomes an edge between its two vertices. AdjacencyListGraph
+     * folds its edges the same way.
+     *
+     * <p>
+     * This runs in O(|V|^2/4096 + |E|) time.
+     * </p>
+     *
+     * @throws DirectionException
+     *             Thrown, with the graph left as it was, when going to
+     *             undirected while two vertices are linked both ways by two
+     *             different edges, since only one edge can connect them.
+     */
+    @Override
+    public void toggleDirected() throws DirectionException {
+    	if(_directed && this.hasTwoWayPair()) { //check before anything is moved
+    		throw new DirectionException("Two different edges link the same vertices both ways");
+    	}
+    	for(int tileRow = 0; tileRow < _tilesPerSide; tileRow++) { //loop through tiles off the diagonal
+    		for(int tileCol = 0; tileCol < _tilesPerSide; tileCol++) {
+    			Tile<V> tile = this.tileAt(tileRow, tileCol);
+    			if(tile == null) {
+    				continue;
+    			}
+    			for(int r = 0; r < TILE_SIZE; r++) { //loop through the filled cells of the tile
+    				long bits = tile.rowBits[r];
+    				while(bits != 0) {
+    					int row = (tileRow << TILE_SHIFT) | r;
+    					int col = (tileCol << TILE_SHIFT) | Long.numberOfTrailingZeros(bits);
+    					bits &= bits - 1;
+    					CS16Edge<V> e = tile.cells[(r << TILE_SHIFT) | (col & TILE_MASK)];
+    					if(_directed && row > col) { //lower triangle, move it up
+    						int weight = tile.weights[(r << TILE_SHIFT) | (col & TILE_MASK)];
+    						this.setPhysical(row, col, null, 0);
+    						if(this.getPhysical(col, row) == null) { //otherwise the mirror already holds e
+    							this.setPhysical(col, row, e, weight);
+    						}
+    					}
+    					else if(!_directed && row < col) { //upper triangle, mirror it down
+    						this.setPhysical(col, row, e, tile.weights[(r << TILE_SHIFT) | (col & TILE_MASK)]);
+    					}
+    				}
+    			}
+    		}
+    	}
+    	if(_directed) { //tiles below the diagonal are empty now, let them go
+    		for(int tileRow = 1; tileRow < _tilesPerSide; tileRow++) {
+    			Arrays.fill(_adjMatrix[tileRow], 0, tileRow, null);
+    		}
+    	}
+    	_directed = !_directed; //flip directedness
+    	this.recountDegrees(); //degrees follow the new layout
+    }
+
+    /**
+     * Returns true if some edge in the lower triangle has a different edge in
+     * its mirror cell, meaning two vertices are linked both ways by two edges.
+     */
+    private boolean hasTwoWayPair() {
+    	for(int tileRow = 0; tileRow < _tilesPerSide; tileRow++) { //tiles on or below the diagonal
+    		for(int tileCol = 0; tileCol <= tileRow; tileCol++) {
+    			Tile<V> tile = this.tileAt(tileRow, tileCol);
+    			if(tile == null) {
+    				continue;
+    			}
+    			for(int r = 0; r < TILE_SIZE; r++) {
+    				long bits = tile.rowBits[r];
+    				while(bits != 0) {
+    					int row = (tileRow << TILE_SHIFT) | r;
+    					int col = (tileCol << TILE_SHIFT) | Long.numberOfTrailingZeros(bits);
+    					bits &= bits - 1;
+    					if(row > col) {
+    						CS16Edge<V> mirror = this.getPhysical(col, row);
+    						if(mirror != null && mirror != tile.cells[(r << TILE_SHIFT) | (col & TILE_MASK)]) {
+    							return true;
+    						}
+    					}
+    				}
+    			}
+    		}
+    	}
+    	return false;
+    }
+
+    /**
+     * Clears all the vertices and edges from the graph. The adjacency matrix
+     * is not reallocated: moving to a new epoch makes every existing tile read
+     * as empty, and each tile is wiped lazily when it is written again. The
+     * degree counters of a vertex number are reset when the number is handed
+     * out again by insertVertex.
+     *
+     * The edges of a tile that is never written again stay referenced by
+     * that tile (they are only unreachable through the Graph methods), so the
+     * old edges and vertices are kept in memory until their tiles are reused
+     * or this graph itself is dropped. Making a new graph instead of calling
+     * clear() lets them go right away.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     */
+    @Override
+    public void clear() {
+    	
+    	_vertices = new HashSet<>(); //new vertices hashSet
+    	_edges = new HashSet<>(); //new edges hashSet
+    	_epoch++; //every tile is now from an older epoch, so empty
+    	if(_epoch == 0) { //epoch wrapped around, old stamps could match again
+    		_adjMatrix = this.makeEmptyTileTable(_tilesPerSide); //drop the tiles this one time
+    	}
+    	_numVertices = 0; //set num vertices back to 0
+    	_numStack = new Stack<>();  //new numStack
+    	
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * <p>
+     * This must run in O(1) time.
+     * </p>
+     */
+    public int getNumEdges() {
+    	return _edges.size(); //size of the edge set
+    }
+
+    /**
+     * Returns an immutable compressed-sparse-row snapshot of the graph, for
+     * algorithms that only read it and want flat int arrays instead of
+     * iterators. Later changes to the graph do not show up in the snapshot.
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time plus one scan of the matrix rows.
+     * </p>
+     *
+     * @return the snapshot of the graph as it is now
+     */
+    public GraphSnapshot<V> freeze() {
+    	return GraphSnapshot.of(this); //reads the rows with cursors
+    }
+
+    /**
+     * Puts an existing vertex into the graph, keeping its vertex number. This
+     * is used by AdaptiveGraph when it moves a graph from one representation
+     * to another; restoreNumbering has to be called once every vertex is in.
+     */
+    void adoptVertex(CS16Vertex<V> v) {
+    	this.ensureCapacity(v.getVertexNumber()); //make sure the number fits in the matrix
+    	_outDegree[v.getVertexNumber()] = 0;
+    	_inDegree[v.getVertexNumber()] = 0;
+    	_vertices.add(v); //add to set
+    }
+
+    /**
+     * Puts an existing edge into the graph as going from one vertex to the
+     * other, without creating a new edge object. Used by AdaptiveGraph.
+     */
+    void adoptEdge(CS16Vertex<V> from, CS16Vertex<V> to, CS16Edge<V> e) {
+    	_edges.add(e); //add to set
+    	Integer element = e.element();
+    	this.setCell(from.getVertexNumber(), to.getVertexNumber(), e, (element == null) ? 0 : element);
+    }
+
+    /**
+     * Rebuilds the vertex number stack after vertices were adopted, so that
+     * the numbers not in use below the highest one are handed out first.
+     */
+    void restoreNumbering() {
+    	int max = -1; //highest vertex number in use
+    	for(CS16Vertex<V> v : _vertices) {
+    		max = Math.max(max, v.getVertexNumber());
+    	}
+    	boolean[] used = new boolean[max + 1];
+    	for(CS16Vertex<V> v : _vertices) {
+    		used[v.getVertexNumber()] = true;
+    	}
+    	_numStack = new Stack<>();
+    	for(int i = max; i >= 0; i--) { //push free numbers, lowest ends on top
+    		if(!used[i]) {
+    			_numStack.push(i);
+    		}
+    	}
+    	_numVertices = _vertices.size(); //numbers past max come from the count
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     */
+    @Override
+	public int getNumVertices() {
+		return _numVertices; //return the instance variable for vertices
+	}
+
+    /**
+     * Returns the number of vertex numbers the matrix can currently hold.
+     */
+    private int capacity() {
+    	return _tilesPerSide << TILE_SHIFT;
+    }
+
+    /**
+     * Doubles the table of tiles until vertex number num fits. Only the tile
+     * references are copied, the edges inside the tiles stay where they are.
+     */
+    private void ensureCapacity(int num) {
+    	if(num < this.capacity()) { //already fits
+    		return;
+    	}
+    	int newSide = _tilesPerSide;
+    	while((newSide << TILE_SHIFT) <= num) { //double until the number fits
+    		newSide *= 2;
+    	}
+    	Tile<V>[][] newMatrix = this.makeEmptyTileTable(newSide);
+    	for(int tileRow = 0; tileRow < _tilesPerSide; tileRow++) { //copy old tile references over
+    		System.arraycopy(_adjMatrix[tileRow], 0, newMatrix[tileRow], 0, _tilesPerSide);
+    	}
+    	_adjMatrix = newMatrix;
+    	_tilesPerSide = newSide;
+    	_outDegree = Arrays.copyOf(_outDegree, newSide << TILE_SHIFT); //grow the degree counters too
+    	_inDegree = Arrays.copyOf(_inDegree, newSide << TILE_SHIFT);
+    }
+
+    /**
+     * Returns the edge between row and col, looking in the single upper
+     * triangle cell when the graph is undirected.
+     */
+    private CS16Edge<V> getCell(int row, int col) {
+    	if(!_directed && row > col) { //undirected edges live in the upper triangle
+    		return this.getPhysical(col, row);
+    	}
+    	return this.getPhysical(row, col);
+    }
+
+    /**
+     * Returns the edge stored at [row][col] in the matrix, or null if there is
+     * none (including when either number is outside the matrix).
+     */
+    private CS16Edge<V> getPhysical(int row, int col) {
+    	if(row >= this.capacity() || col >= this.capacity()) { //outside of the matrix
+    		return null;
+    	}
+    	Tile<V> tile = this.tileAt(row >> TILE_SHIFT, col >> TILE_SHIFT);
+    	if(tile == null) { //tile never used, so no edge
+    		return null;
+    	}
+    	return tile.cells[((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK)];
+    }
+
+    /**
+     * Empties every filled cell of a stored row (or column) of the matrix and
+     * removes the edges found there from the edge set. Tiles that were never
+     * allocated are skipped, and inside a tile only set bits are visited.
+     */
+    private void clearLine(int line, boolean isRow) {
+    	if(line >= this.capacity()) { //nothing stored for this number
+    		return;
+    	}
+    	for(int t = 0; t < _tilesPerSide; t++) { //loop through tiles along the line
+    		Tile<V> tile = isRow ? this.tileAt(line >> TILE_SHIFT, t) : this.tileAt(t, line >> TILE_SHIFT);
+    		if(tile == null) {
+    			continue;
+    		}
+    		long bits = isRow ? tile.rowBits[line & TILE_MASK] : tile.colBits[line & TILE_MASK];
+    		while(bits != 0) { //loop through the filled cells only
+    			int other = (t << TILE_SHIFT) | Long.numberOfTrailingZeros(bits); //number on the other end
+    			int row = isRow ? line : other;
+    			int col = isRow ? other : line;
+    			_edges.remove(this.getPhysical(row, col)); //remove from set
+    			this.setPhysical(row, col, null, 0); //empty the cell
+    			bits &= bits - 1; //clear the lowest set bit
+    		}
+    	}
+    }
+
+    /**
+     * Returns true if there is an edge at [row][col], by probing the row bits
+     * of the tile instead of loading the edge itself. When the graph is
+     * undirected the upper triangle cell is probed.
+     */
+    private boolean hasCell(int row, int col) {
+    	if(!_directed && row > col) { //undirected edges live in the upper triangle
+    		int swap = row;
+    		row = col;
+    		col = swap;
+    	}
+    	if(row >= this.capacity() || col >= this.capacity()) { //outside of the matrix
+    		return false;
+    	}
+    	Tile<V> tile = this.tileAt(row >> TILE_SHIFT, col >> TILE_SHIFT);
+    	return tile != null && (tile.rowBits[row & TILE_MASK] & (1L << (col & TILE_MASK))) != 0;
+    }
+
+    /**
+     * Stores edge e with its weight (or null to clear) between row and col,
+     * in the single upper triangle cell when the graph is undirected.
+     */
+    private void setCell(int row, int col, CS16Edge<V> e, int weight) {
+    	if(!_directed && row > col) { //undirected edges live in the upper triangle
+    		this.setPhysical(col, row, e, weight);
+    	}
+    	else {
+    		this.setPhysical(row, col, e, weight);
+    	}
+    }
+
+    /**
+     * Stores edge e and its weight (or null to clear) at [row][col] in the
+     * matrix, allocating the tile the first time an edge is put in it. The row
+     * and column bits of the tile, and the degree counters, are kept in step
+     * with the cell.
+     */
+    private void setPhysical(int row, int col, CS16Edge<V> e, int weight) {
+    	Tile<V> tile = this.tileAt(row >> TILE_SHIFT, col >> TILE_SHIFT);
+    	if(tile == null) {
+    		if(e == null) { //nothing to clear
+    			return;
+    		}
+    		tile = _adjMatrix[row >> TILE_SHIFT][col >> TILE_SHIFT];
+    		if(tile == null) { //first edge ever in this tile
+    			tile = new Tile<V>();
+    			_adjMatrix[row >> TILE_SHIFT][col >> TILE_SHIFT] = tile;
+    		}
+    		else { //tile left over from an older epoch, wipe it for reuse
+    			tile.wipe();
+    		}
+    		tile.epoch = _epoch;
+    	}
+    	int r = row & TILE_MASK;
+    	int c = col & TILE_MASK;
+    	boolean wasFilled = (tile.rowBits[r] & (1L << c)) != 0;
+    	tile.cells[(r << TILE_SHIFT) | c] = e;
+    	tile.weights[(r << TILE_SHIFT) | c] = weight;
+    	if(e != null && !wasFilled) { //mark the cell as filled
+    		tile.rowBits[r] |= 1L << c;
+    		tile.colBits[c] |= 1L << r;
+    		this.addDegree(row, col, 1);
+    	}
+    	else if(e == null && wasFilled) { //mark the cell as empty
+    		tile.rowBits[r] &= ~(1L << c);
+    		tile.colBits[c] &= ~(1L << r);
+    		this.addDegree(row, col, -1);
+    	}
+    }
+
+    /**
+     * Adds delta to the degree counters for a filled or emptied cell. When
+     * undirected, the one cell is an edge going both ways, so it counts as
+     * outgoing and incoming on both of its vertices (once for a self loop).
+     */
+    private void addDegree(int row, int col, int delta) {
+    	if(_directed) {
+    		_outDegree[row] += delta;
+    		_inDegree[col] += delta;
+    	}
+    	else {
+    		_outDegree[row] += delta;
+    		_inDegree[row] += delta;
+    		if(row != col) {
+    			_outDegree[col] += delta;
+    			_inDegree[col] += delta;
+    		}
+    	}
+    }
+
+    /**
+     * Recomputes every degree counter from the bit words of the tiles.
+     */
+    private void recountDegrees() {
+    	Arrays.fill(_outDegree, 0);
+    	Arrays.fill(_inDegree, 0);
+    	for(int tileRow = 0; tileRow < _tilesPerSide; tileRow++) {
+    		for(int tileCol = 0; tileCol < _tilesPerSide; tileCol++) {
+    			Tile<V> tile = this.tileAt(tileRow, tileCol);
+    			if(tile == null) {
+    				continue;
+    			}
+    			for(int r = 0; r < TILE_SIZE; r++) {
+    				long bits = tile.rowBits[r];
+    				while(bits != 0) {
+    					int col = (tileCol << TILE_SHIFT) | Long.numberOfTrailingZeros(bits);
+    					this.addDegree((tileRow << TILE_SHIFT) | r, col, 1);
+    					bits &= bits - 1;
+    				}
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * A lazy Iterator over the edges of one row (outgoing) or one column
+     * (incoming) of the matrix. It keeps the bit word of the tile it is in and
+     * jumps from set bit to set bit, skipping tiles that were never allocated.
+     * When the graph is undirected, the edges of a vertex are spread over its
+     * stored row and its stored column, so the cursor walks the row first and
+     * then the column (skipping the self loop cell the second time).
+     * A cursor can be moved to another vertex with reset, so it can be reused
+     * for as many scans as needed.
+     */
+    public class EdgeCursor implements Iterator<CS16Edge<V>> {
+
+    	// true to walk a row (outgoing edges), false to walk a column (incoming)
+    	private final boolean _outgoing;
+    	// the row or column number being walked
+    	private int _line;
+    	// true while walking the stored row of _line, false while walking its column
+    	private boolean _onRow;
+    	// true if the column still has to be walked after the row (undirected)
+    	private boolean _thenColumn;
+    	// index of the tile along the line that _bits came from
+    	private int _tileIndex;
+    	// tile that _bits came from
+    	private Tile<V> _tile;
+    	// set bits of the current tile word that have not been returned yet
+    	private long _bits;
+    	// tile and cell index of the edge returned by the last call to next
+    	private Tile<V> _lastTile;
+    	private int _lastCell;
+
+    	private EdgeCursor(boolean outgoing) {
+    		_outgoing = outgoing;
+    		_line = Integer.MAX_VALUE; //not placed on a vertex yet, so no edges
+    		_tileIndex = -1;
+    	}
+
+    	/**
+    	 * Places the cursor at the start of the row or column of vert.
+    	 *
+    	 * @param vert
+    	 *            the vertex whose edges to walk
+    	 * @return this cursor
+    	 * @throws InvalidVertexException
+    	 *             Thrown when the Vertex is null.
+    	 */
+    	public EdgeCursor reset(CS16Vertex<V> vert) throws InvalidVertexException {
+    		if(vert == null) { //check if vertex is null
+    			throw new InvalidVertexException("Invalid Vertex in parameter");
+    		}
+    		_line = vert.getVertexNumber();
+    		_onRow = _outgoing || !_directed; //undirected always starts on the row
+    		_thenColumn = !_directed;
+    		_tileIndex = -1; //before the first tile
+    		_tile = null;
+    		_bits = 0;
+    		return this;
+    	}
+
+    	@Override
+    	public boolean hasNext() {
+    		if(_tile != null) { //drop bits of edges removed since they were read
+    			_bits &= this.word();
+    		}
+    		while(_bits == 0) { //move to the next tile with a filled cell on the line
+    			if(_line >= AdjacencyMatrixGraph.this.capacity()) {
+    				return false; //vertex has no row or column
+    			}
+    			if(_tileIndex + 1 >= _tilesPerSide) { //end of the line
+    				_tile = null;
+    				if(!_thenColumn) {
+    					return false;
+    				}
+    				_thenColumn = false; //undirected, now walk the column
+    				_onRow = false;
+    				_tileIndex = -1;
+    				continue;
+    			}
+    			_tileIndex++;
+    			_tile = _onRow ? tileAt(_line >> TILE_SHIFT, _tileIndex) : tileAt(_tileIndex, _line >> TILE_SHIFT);
+    			if(_tile != null) {
+    				_bits = this.word();
+    			}
+    		}
+    		return true;
+    	}
+
+    	@Override
+    	public CS16Edge<V> next() {
+    		if(!this.hasNext()) {
+    			throw new NoSuchElementException("No more edges");
+    		}
+    		int k = Long.numberOfTrailingZeros(_bits); //position of the next filled cell in the tile
+    		_bits &= _bits - 1; //clear the lowest set bit
+    		if(_onRow) {
+    			_lastCell = ((_line & TILE_MASK) << TILE_SHIFT) | k;
+    		}
+    		else {
+    			_lastCell = (k << TILE_SHIFT) | (_line & TILE_MASK);
+    		}
+    		_lastTile = _tile;
+    		return _tile.cells[_lastCell];
+    	}
+
+    	/**
+    	 * Returns the weight of the edge returned by the last call to next,
+    	 * read from the int weight store of the matrix.
+    	 *
+    	 * @return the weight of the last edge
+    	 */
+    	public int lastWeight() {
+    		return _lastTile.weights[_lastCell];
+    	}
+
+    	/**
+    	 * Returns the current bit word of the line in _tile.
+    	 */
+    	private long word() {
+    		if(_onRow) {
+    			return _tile.rowBits[_line & TILE_MASK];
+    		}
+    		long bits = _tile.colBits[_line & TILE_MASK];
+    		if(!_directed && _tileIndex == (_line >> TILE_SHIFT)) { //self loop was already returned on the row
+    			bits &= ~(1L << (_line & TILE_MASK));
+    		}
+    		return bits;
+    	}
+    }
+
+    /**
+     * Returns the tile at [tileRow][tileCol], or null if it was never allocated
+     * or belongs to an epoch before the last clear().
+     */
+    private Tile<V> tileAt(int tileRow, int tileCol) {
+    	Tile<V> tile = _adjMatrix[tileRow][tileCol];
+    	if(tile == null || tile.epoch != _epoch) { //missing or stale
+    		return null;
+    	}
+    	return tile;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tile<V>[][] makeEmptyTileTable(int side) {
+        return new Tile[side][side];
+    }
+
+    /**
+     * One TILE_SIZE x TILE_SIZE block of the adjacency matrix, stored row by
+     * row in a flat array, with a bit word for each row and each column that
+     * marks which cells are filled.
+     */
+    private static class Tile<V> {
+    	@SuppressWarnings("unchecked")
+    	private final CS16Edge<V>[] cells = new CS16Edge[TILE_SIZE * TILE_SIZE];
+    	// weight of the edge in each cell, same layout as cells
+    	private final int[] weights = new int[TILE_SIZE * TILE_SIZE];
+    	// rowBits[r] has bit c set when cells[r][c] holds an edge
+    	private final long[] rowBits = new long[TILE_SIZE];
+    	// colBits[c] has bit r set when cells[r][c] holds an edge
+    	private final long[] colBits = new long[TILE_SIZE];
+    	// epoch this tile was last written in
+    	private int epoch;
+
+    	/**
+    	 * Empties every cell of the tile so it can be used in a new epoch.
+    	 */
+    	private void wipe() {
+    		Arrays.fill(cells, null);
+    		Arrays.fill(rowBits, 0L);
+    		Arrays.fill(colBits, 0L);
+    	}
+    }
+}
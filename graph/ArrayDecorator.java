@@ -0,0 +1,289 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+import support.graph.CS16Vertex;
+
+/**
+ * A decorator that keeps its decorations in an array indexed by a number
+ * taken from the key, instead of in a HashMap. For vertices that number is the
+ * vertex number, which the graphs keep small and dense, so every method is a
+ * single array access with no hashing. Edges have no number of their own, so
+ * to decorate edges the caller passes the function that gives each edge its
+ * id (for example its slot in a GraphSnapshot).
+ *
+ * <p>
+ * The nested Ints, Doubles and Booleans classes store primitive values, and
+ * their getInt/setInt (and double, boolean) methods skip boxing altogether.
+ * They still implement CS16Decorator with the boxed type for code that only
+ * knows about the interface, but since a primitive cannot be null, a null
+ * decoration is refused.
+ * </p>
+ *
+ * <p>
+ * All methods run in O(1) time, apart from setDecoration growing the array
+ * when an index is past its end (amortized O(1)).
+ * </p>
+ */
+public class ArrayDecorator<K, V> extends IndexedDecorator<K, V> {
+
+    // the decoration in each slot
+    private Object[] _values;
+
+    /**
+     * Makes an empty decorator for keys numbered by index, with room for
+     * indices below capacity.
+     */
+    public ArrayDecorator(ToIntFunction<? super K> index, int capacity) {
+        super(index, capacity);
+        _values = new Object[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Makes an empty decorator for vertices, indexed by vertex number.
+     *
+     * @param capacity
+     *          the expected highest vertex number plus one, for example the
+     *          number of vertices of the graph
+     */
+    public static <V, T> ArrayDecorator<CS16Vertex<V>, T> forVertices(int capacity) {
+        return new ArrayDecorator<CS16Vertex<V>, T>(CS16Vertex::getVertexNumber, capacity);
+    }
+
+    /**
+     * Gets the decoration associated with the given key, or null if there is
+     * none.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getDecoration(K key) {
+        int i = this.slot(key);
+        return (i < 0) ? null : (V) _values[i];
+    }
+
+    /**
+     * Sets the decoration for the specified key to value.
+     */
+    @Override
+    public void setDecoration(K key, V value) {
+        int i = this.claim(key); //may grow _values, so claim before reading it
+        _values[i] = value;
+    }
+
+    /**
+     * Removes the decoration for the given key and returns the value
+     * associated with it.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V removeDecoration(K key) {
+        int i = this.release(key);
+        if(i < 0) {
+            return null;
+        }
+        V value = (V) _values[i];
+        _values[i] = null; //let the value go
+        return value;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        _values = Arrays.copyOf(_values, capacity);
+    }
+
+    /**
+     * Array decorator holding int values.
+     */
+    public static class Ints<K> extends IndexedDecorator<K, Integer> {
+
+        private int[] _values;
+
+        public Ints(ToIntFunction<? super K> index, int capacity) {
+            super(index, capacity);
+            _values = new int[Math.max(capacity, 1)];
+        }
+
+        public static <V> Ints<CS16Vertex<V>> forVertices(int capacity) {
+            return new Ints<CS16Vertex<V>>(CS16Vertex::getVertexNumber, capacity);
+        }
+
+        /**
+         * Returns the int decoration of a key, or 0 if there is none.
+         */
+        public int getInt(K key) {
+            int i = this.slot(key);
+            return (i < 0) ? 0 : _values[i];
+        }
+
+        public void setInt(K key, int value) {
+            int i = this.claim(key); //may grow _values, so claim before reading it
+            _values[i] = value;
+        }
+
+        @Override
+        public Integer getDecoration(K key) {
+            return this.hasDecoration(key) ? this.getInt(key) : null;
+        }
+
+        /**
+         * Sets the decoration of a key to value.
+         *
+         * @throws IllegalArgumentException
+         *             Thrown when value is null, which an int cannot hold.
+         */
+        @Override
+        public void setDecoration(K key, Integer value) {
+            if(value == null) {
+                throw new IllegalArgumentException("Ints decorator cannot hold null");
+            }
+            this.setInt(key, value);
+        }
+
+        @Override
+        public Integer removeDecoration(K key) {
+            int i = this.release(key);
+            if(i < 0) {
+                return null;
+            }
+            int value = _values[i];
+            _values[i] = 0; //so the getter reads 0 again
+            return value;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+
+    /**
+     * Array decorator holding double values.
+     */
+    public static class Doubles<K> extends IndexedDecorator<K, Double> {
+
+        private double[] _values;
+
+        public Doubles(ToIntFunction<? super K> index, int capacity) {
+            super(index, capacity);
+            _values = new double[Math.max(capacity, 1)];
+        }
+
+        public static <V> Doubles<CS16Vertex<V>> forVertices(int capacity) {
+            return new Doubles<CS16Vertex<V>>(CS16Vertex::getVertexNumber, capacity);
+        }
+
+        /**
+         * Returns the double decoration of a key, or 0 if there is none.
+         */
+        public double getDouble(K key) {
+            int i = this.slot(key);
+            return (i < 0) ? 0 : _values[i];
+        }
+
+        public void setDouble(K key, double value) {
+            int i = this.claim(key); //may grow _values, so claim before reading it
+            _values[i] = value;
+        }
+
+        @Override
+        public Double getDecoration(K key) {
+            return this.hasDecoration(key) ? this.getDouble(key) : null;
+        }
+
+        /**
+         * Sets the decoration of a key to value.
+         *
+         * @throws IllegalArgumentException
+         *             Thrown when value is null, which a double cannot hold.
+         */
+        @Override
+        public void setDecoration(K key, Double value) {
+            if(value == null) {
+                throw new IllegalArgumentException("Doubles decorator cannot hold null");
+            }
+            this.setDouble(key, value);
+        }
+
+        @Override
+        public Double removeDecoration(K key) {
+            int i = this.release(key);
+            if(i < 0) {
+                return null;
+            }
+            double value = _values[i];
+            _values[i] = 0; //so the getter reads 0 again
+            return value;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+
+    /**
+     * Array decorator holding boolean values.
+     */
+    public static class Booleans<K> extends IndexedDecorator<K, Boolean> {
+
+        private boolean[] _values;
+
+        public Booleans(ToIntFunction<? super K> index, int capacity) {
+            super(index, capacity);
+            _values = new boolean[Math.max(capacity, 1)];
+        }
+
+        public static <V> Booleans<CS16Vertex<V>> forVertices(int capacity) {
+            return new Booleans<CS16Vertex<V>>(CS16Vertex::getVertexNumber, capacity);
+        }
+
+        /**
+         * Returns the boolean decoration of a key, or false if there is none.
+         */
+        public boolean getBoolean(K key) {
+            int i = this.slot(key);
+            return i >= 0 && _values[i];
+        }
+
+        public void setBoolean(K key, boolean value) {
+            int i = this.claim(key); //may grow _values, so claim before reading it
+            _values[i] = value;
+        }
+
+        @Override
+        public Boolean getDecoration(K key) {
+            return this.hasDecoration(key) ? this.getBoolean(key) : null;
+        }
+
+        /**
+         * Sets the decoration of a key to value.
+         *
+         * @throws IllegalArgumentException
+         *             Thrown when value is null, which a boolean cannot hold.
+         */
+        @Override
+        public void setDecoration(K key, Boolean value) {
+            if(value == null) {
+                throw new IllegalArgumentException("Booleans decorator cannot hold null");
+            }
+            this.setBoolean(key, value);
+        }
+
+        @Override
+        public Boolean removeDecoration(K key) {
+            int i = this.release(key);
+            if(i < 0) {
+                return null;
+            }
+            boolean value = _values[i];
+            _values[i] = false; //so getBoolean reads false again
+            return value;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class tests the array-backed decorators, ArrayDecorator and its
+ * Ints, Doubles and Booleans variants, on their own and on the vertices of
+ * a graph.
+ */
+public class ArrayDecoratorTest {
+
+	/**
+	 * Starts with room for 2 keys and decorates 200, so the arrays have to
+	 * grow several times while values are being set. Every value has to end
+	 * up in the grown arrays.
+	 */
+	@Test
+	public void testGrowsPastCapacity() {
+		ArrayDecorator<Integer, String> names = new ArrayDecorator<Integer, String>(Integer::intValue, 2);
+		ArrayDecorator.Ints<Integer> squares = new ArrayDecorator.Ints<Integer>(Integer::intValue, 2);
+		for (int i = 0; i < 200; i++) {
+			names.setDecoration(i, "n" + i);
+			squares.setInt(i, i * i);
+		}
+		for (int i = 0; i < 200; i++) {
+			assertEquals("n" + i, names.getDecoration(i));
+			assertEquals(i * i, squares.getInt(i));
+			assertEquals(Integer.valueOf(i * i), squares.getDecoration(i));
+		}
+		assertEquals(200, names.size());
+		assertEquals(200, squares.size());
+
+		// the first decoration of a far away key also grows the arrays
+		names.setDecoration(5000, "far");
+		assertEquals("far", names.getDecoration(5000));
+		assertNull(names.getDecoration(4999));
+
+		// vertices are decorated by vertex number
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		ArrayDecorator<CS16Vertex<String>, String> byVertex = ArrayDecorator.forVertices(1);
+		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 100; i++) {
+			CS16Vertex<String> v = adjMatrix.insertVertex("V" + i);
+			vertices.add(v);
+			byVertex.setDecoration(v, v.getVertexName());
+		}
+		for (CS16Vertex<String> v : vertices) {
+			assertEquals(v.getVertexName(), byVertex.getDecoration(v));
+		}
+	}
+
+	/**
+	 * Decorations come and go: hasDecoration, removeDecoration, size and
+	 * getKeys have to agree with each other at every step.
+	 */
+	@Test
+	public void testRemoveAndHas() {
+		ArrayDecorator<Integer, String> names = new ArrayDecorator<Integer, String>(Integer::intValue, 4);
+		ArrayDecorator.Ints<Integer> counts = new ArrayDecorator.Ints<Integer>(Integer::intValue, 4);
+		assertFalse(names.hasDecoration(3));
+		assertFalse(names.hasDecoration(100)); // past the end of the arrays
+		assertNull(names.removeDecoration(100));
+
+		names.setDecoration(1, "one");
+		names.setDecoration(3, "three");
+		counts.setInt(3, 7);
+		assertTrue(names.hasDecoration(1));
+		assertTrue(counts.hasDecoration(3));
+		assertFalse(counts.hasDecoration(1));
+		assertEquals(0, counts.getInt(1));
+		assertNull(counts.getDecoration(1));
+
+		Set<Integer> keys = new HashSet<Integer>(names.getKeys());
+		assertEquals(2, keys.size());
+		assertTrue(keys.contains(1) && keys.contains(3));
+		assertTrue(names.getKeys().contains(3));
+
+		assertEquals("one", names.removeDecoration(1));
+		assertFalse(names.hasDecoration(1));
+		assertNull(names.getDecoration(1));
+		assertNull(names.removeDecoration(1));
+		assertEquals(1, names.size());
+		assertFalse(names.getKeys().contains(1));
+
+		assertEquals(Integer.valueOf(7), counts.removeDecoration(3));
+		assertFalse(counts.hasDecoration(3));
+		assertEquals(0, counts.getInt(3));
+		assertEquals(0, counts.size());
+
+		// a slot can be used again after its key was removed
+		names.setDecoration(1, "uno");
+		assertEquals("uno", names.getDecoration(1));
+		assertEquals(2, names.size());
+	}
+
+	/**
+	 * ArrayDecorator keeps a null value like MyDecorator does, while Ints
+	 * cannot hold null and refuses it without changing anything.
+	 */
+	@Test
+	public void testNullDecorations() {
+		ArrayDecorator<Integer, String> names = new ArrayDecorator<Integer, String>(Integer::intValue, 4);
+		names.setDecoration(2, null);
+		assertTrue(names.hasDecoration(2));
+		assertNull(names.getDecoration(2));
+		assertEquals(1, names.size());
+
+		ArrayDecorator.Ints<Integer> counts = new ArrayDecorator.Ints<Integer>(Integer::intValue, 4);
+		counts.setInt(2, 5);
+		try {
+			counts.setDecoration(2, null);
+			fail("an int cannot be null");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			counts.setDecoration(3, null);
+			fail("an int cannot be null");
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(5, counts.getInt(2));
+		assertFalse(counts.hasDecoration(3));
+		assertEquals(1, counts.size());
+	}
+
+	/**
+	 * The Doubles and Booleans variants grow like Ints, read 0 and false
+	 * for a key without a decoration, go back to that after a remove, and
+	 * refuse null without changing anything.
+	 */
+	@Test
+	public void testPrimitiveVariants() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		ArrayDecorator.Doubles<CS16Vertex<String>> halves = ArrayDecorator.Doubles.forVertices(1);
+		ArrayDecorator.Booleans<CS16Vertex<String>> even = ArrayDecorator.Booleans.forVertices(1);
+		List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 100; i++) {
+			CS16Vertex<String> v = adjMatrix.insertVertex("V" + i);
+			vertices.add(v);
+			halves.setDouble(v, i / 2.0);
+			even.setBoolean(v, i % 2 == 0);
+		}
+		for (int i = 0; i < 100; i++) {
+			CS16Vertex<String> v = vertices.get(i);
+			assertEquals(i / 2.0, halves.getDouble(v), 0);
+			assertEquals(Double.valueOf(i / 2.0), halves.getDecoration(v));
+			assertEquals(i % 2 == 0, even.getBoolean(v));
+			assertEquals(Boolean.valueOf(i % 2 == 0), even.getDecoration(v));
+		}
+		assertEquals(100, halves.size());
+		assertEquals(100, even.size());
+
+		CS16Vertex<String> first = vertices.get(0);
+		CS16Vertex<String> third = vertices.get(3);
+		assertEquals(Double.valueOf(1.5), halves.removeDecoration(third));
+		assertFalse(halves.hasDecoration(third));
+		assertEquals(0, halves.getDouble(third), 0);
+		assertNull(halves.getDecoration(third));
+		assertEquals(Boolean.TRUE, even.removeDecoration(first));
+		assertFalse(even.hasDecoration(first));
+		assertFalse(even.getBoolean(first));
+		assertNull(even.getDecoration(first));
+
+		try {
+			halves.setDecoration(first, null);
+			fail("a double cannot be null");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			even.setDecoration(third, null);
+			fail("a boolean cannot be null");
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(0, halves.getDouble(first), 0);
+		assertEquals(Boolean.FALSE, even.getDecoration(third));
+		assertEquals(99, halves.size());
+		assertEquals(99, even.size());
+	}
+
+	/**
+	 * A key whose index is negative has no slot.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeIndex() {
+		ArrayDecorator<Integer, String> names = new ArrayDecorator<Integer, String>(Integer::intValue, 4);
+		names.setDecoration(-1, "minus one");
+	}
+}
@@ -0,0 +1,87 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free disjoint-set (union-find) forest over the ints 0 to size - 1,
+ * safe to use from many threads at once. Parent links are only changed with
+ * compare-and-set: union hangs the root with the higher index under the root
+ * with the lower one, so links always point to smaller indices and no cycle
+ * can form, and find halves paths as it walks them. A failed compare-and-set
+ * just means another thread got there first, and the operation retries from
+ * the new roots.
+ */
+public class ConcurrentDisjointSet {
+
+    // parent of each element, roots point to themselves
+    private final AtomicIntegerArray _parent;
+
+    /**
+     * Makes size singleton sets, one per element.
+     */
+    public ConcurrentDisjointSet(int size) {
+        _parent = new AtomicIntegerArray(size);
+        for(int i = 0; i < size; i++) {
+            _parent.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the root of the set holding x. While other threads are joining
+     * sets the answer may be out of date as soon as it is returned, but it was
+     * the root at some point during the call.
+     */
+    public int find(int x) {
+        while(true) {
+            int p = _parent.get(x);
+            if(p == x) {
+                return x;
+            }
+            int gp = _parent.get(p);
+            if(gp != p) {
+                _parent.compareAndSet(x, p, gp); //path halving, fine to lose the race
+            }
+            x = gp;
+        }
+    }
+
+    /**
+     * Returns true if a and b are in the same set.
+     */
+    public boolean sameSet(int a, int b) {
+        while(true) {
+            int ra = this.find(a);
+            int rb = this.find(b);
+            if(ra == rb) {
+                return true;
+            }
+            if(_parent.get(ra) == ra) { //ra still a root, so the answer held at this point
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Merges the sets holding a and b. When several threads join the same two
+     * sets at once, exactly one of them gets true.
+     *
+     * @return true if this call joined two separate sets
+     */
+    public boolean union(int a, int b) {
+        while(true) {
+            int ra = this.find(a);
+            int rb = this.find(b);
+            if(ra == rb) {
+                return false;
+            }
+            if(ra < rb) { //always link the higher root under the lower one
+                int swap = ra;
+                ra = rb;
+                rb = swap;
+            }
+            if(_parent.compareAndSet(ra, ra, rb)) {
+                return true;
+            }
+        }
+    }
+}
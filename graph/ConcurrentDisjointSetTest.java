@@ -0,0 +1,133 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class tests ConcurrentDisjointSet with many threads joining and
+ * looking up the same sets at once, checked against a DisjointSet that
+ * does the same unions on one thread.
+ */
+public class ConcurrentDisjointSetTest {
+
+	// threads racing on the same set
+	private static final int THREADS = 8;
+
+	/**
+	 * Every thread does the same random unions, each in its own order. The
+	 * sets should end up the same as with one thread, and exactly one call
+	 * should get true for every join, so the true results add up to the
+	 * number of elements minus the number of sets.
+	 */
+	@Test
+	public void testRacingUnions() throws InterruptedException {
+		int size = 20000;
+		Random rand = new Random(16);
+		List<int[]> pairs = new ArrayList<int[]>();
+		for (int i = 0; i < 15000; i++) {
+			pairs.add(new int[] {rand.nextInt(size), rand.nextInt(size)});
+		}
+		DisjointSet expected = new DisjointSet(size);
+		for (int[] pair : pairs) {
+			expected.union(pair[0], pair[1]);
+		}
+
+		ConcurrentDisjointSet sets = new ConcurrentDisjointSet(size);
+		AtomicInteger joins = new AtomicInteger();
+		runAll(t -> {
+			List<int[]> mine = new ArrayList<int[]>(pairs);
+			Collections.shuffle(mine, new Random(t));
+			for (int[] pair : mine) {
+				if (sets.union(pair[0], pair[1])) {
+					joins.incrementAndGet();
+				}
+			}
+		});
+
+		assertEquals(size - expected.numSets(), joins.get());
+		for (int x = 0; x < size; x++) {
+			int root = sets.find(x);
+			assertTrue(root <= x); //links only point to smaller elements
+			assertEquals(expected.find(x) == expected.find(0), sets.sameSet(x, 0));
+			int other = rand.nextInt(size);
+			assertEquals(expected.find(x) == expected.find(other), sets.sameSet(x, other));
+		}
+	}
+
+	/**
+	 * Half the threads join a long chain while the other half keep asking
+	 * whether its two ends are connected. Once an answer is true it has to
+	 * stay true, and at the end the whole chain is one set.
+	 */
+	@Test
+	public void testFindWhileJoining() throws InterruptedException {
+		int size = 50000;
+		ConcurrentDisjointSet sets = new ConcurrentDisjointSet(size);
+		AtomicInteger joins = new AtomicInteger();
+		AtomicInteger flips = new AtomicInteger(); //true then false, which must never happen
+		runAll(t -> {
+			if (t % 2 == 0) {
+				for (int i = t / 2; i + 1 < size; i += THREADS / 2) {
+					if (sets.union(i, i + 1)) {
+						joins.incrementAndGet();
+					}
+				}
+			} else {
+				boolean seen = false;
+				for (int k = 0; k < 200000; k++) {
+					boolean same = sets.sameSet(0, size - 1);
+					if (seen && !same) {
+						flips.incrementAndGet();
+					}
+					seen |= same;
+				}
+			}
+		});
+
+		assertEquals(0, flips.get());
+		assertEquals(size - 1, joins.get());
+		assertTrue(sets.sameSet(0, size - 1));
+		assertEquals(0, sets.find(size - 1));
+	}
+
+	// the body of one thread, given its number
+	private interface Worker {
+		void run(int thread);
+	}
+
+	/**
+	 * Starts THREADS threads at the same moment, each running worker, and
+	 * waits for all of them. Fails if any of them threw.
+	 */
+	private static void runAll(Worker worker) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			Thread th = new Thread(() -> {
+				try {
+					start.await();
+					worker.run(thread);
+				} catch (Throwable e) {
+					errors.add(e);
+				}
+			});
+			threads.add(th);
+			th.start();
+		}
+		start.countDown();
+		for (Thread th : threads) {
+			th.join();
+		}
+		assertEquals(Collections.emptyList(), errors);
+	}
+}
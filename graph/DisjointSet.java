@@ -0,0 +1,73 @@
+package graph;
+
+/**
+ * A disjoint-set (union-find) forest over the ints 0 to size - 1, for
+ * example vertex numbers. find compresses paths as it walks them (every node
+ * on the path is pointed at its grandparent) and union hangs the shallower
+ * tree under the deeper one, so a sequence of operations takes close to
+ * constant time each (inverse Ackermann, amortized).
+ */
+public class DisjointSet {
+
+    // parent of each element, roots point to themselves
+    private final int[] _parent;
+    // upper bound on the height of each root's tree
+    private final byte[] _rank;
+    // number of separate sets
+    private int _numSets;
+
+    /**
+     * Makes size singleton sets, one per element.
+     */
+    public DisjointSet(int size) {
+        _parent = new int[size];
+        for(int i = 0; i < size; i++) {
+            _parent[i] = i;
+        }
+        _rank = new byte[size];
+        _numSets = size;
+    }
+
+    /**
+     * Returns the root of the set holding x.
+     */
+    public int find(int x) {
+        while(_parent[x] != x) {
+            _parent[x] = _parent[_parent[x]]; //path halving
+            x = _parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets holding a and b.
+     *
+     * @return true if they were separate sets, false if they already were one
+     */
+    public boolean union(int a, int b) {
+        int ra = this.find(a);
+        int rb = this.find(b);
+        if(ra == rb) {
+            return false;
+        }
+        if(_rank[ra] < _rank[rb]) { //hang the shallower tree under the deeper one
+            _parent[ra] = rb;
+        }
+        else if(_rank[ra] > _rank[rb]) {
+            _parent[rb] = ra;
+        }
+        else {
+            _parent[rb] = ra;
+            _rank[ra]++;
+        }
+        _numSets--;
+        return true;
+    }
+
+    /**
+     * Returns the number of separate sets.
+     */
+    public int numSets() {
+        return _numSets;
+    }
+}
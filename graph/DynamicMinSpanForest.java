@@ -0,0 +1,322 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.InvalidEdgeException;
+import support.graph.InvalidVertexException;
+
+/**
+ * A minimum spanning forest that stays up to date while its graph changes,
+ * instead of being rebuilt with genMinSpanForest after every change. It is
+ * bound to one Graph, and every change to that graph has to go through this
+ * object (insertEdge, removeEdge, changeWeight, insertVertex, removeVertex)
+ * so the forest can follow it.
+ *
+ * <p>
+ * The forest is kept as its own adjacency map next to the graph. Inserting
+ * an edge between two trees links them. Inserting an edge inside one tree
+ * closes a cycle: the heaviest edge on the tree path between its ends is
+ * swapped out if the new edge is lighter (cycle-max replacement). Removing a
+ * forest edge splits its tree in two, and the lightest graph edge between the
+ * two halves, if any, joins them again (replacement-edge search, run from the
+ * smaller half). A weight change is a removal followed by an insertion, since
+ * edge elements cannot change in place.
+ * </p>
+ *
+ * <p>
+ * Updates cost time in the size of the trees involved rather than
+ * O(|E|log(|V|)), and the forest, its membership and its weight are read in
+ * O(1) time. An edge with a null element counts as weight 0.
+ * </p>
+ */
+public class DynamicMinSpanForest<V> {
+
+    // the graph the forest belongs to
+    private final Graph<V> _graph;
+    // forest edges at each vertex
+    private final Map<CS16Vertex<V>, Set<CS16Edge<V>>> _treeEdges;
+    // all forest edges, and a read-only view of them
+    private final Set<CS16Edge<V>> _forest;
+    private final Set<CS16Edge<V>> _forestView;
+    // sum of the forest's edge weights
+    private long _totalWeight;
+
+    /**
+     * Builds the forest of g as it is now, with MyKruskal.
+     *
+     * This runs in O(|E|log(|E|) + |V|) time.
+     */
+    public DynamicMinSpanForest(Graph<V> g) {
+        _graph = g;
+        _treeEdges = new HashMap<>();
+        _forest = new HashSet<>();
+        _forestView = Collections.unmodifiableSet(_forest);
+        _totalWeight = 0;
+        for(CS16Edge<V> e : new MyKruskal<V>().genMinSpanForest(g, null)) {
+            this.link(e);
+        }
+    }
+
+    /**
+     * Returns a read-only, live view of the forest's edges.
+     *
+     * This runs in O(1) time.
+     */
+    public Set<CS16Edge<V>> getForest() {
+        return _forestView;
+    }
+
+    /**
+     * Returns true if e is in the forest.
+     *
+     * This runs in O(1) time.
+     */
+    public boolean inForest(CS16Edge<V> e) {
+        return _forest.contains(e);
+    }
+
+    /**
+     * Returns the total weight of the forest.
+     *
+     * This runs in O(1) time.
+     */
+    public long getTotalWeight() {
+        return _totalWeight;
+    }
+
+    /**
+     * Inserts a vertex into the graph. It starts out as a tree of its own.
+     */
+    public CS16Vertex<V> insertVertex(V element) {
+        return _graph.insertVertex(element);
+    }
+
+    /**
+     * Inserts an edge into the graph and the forest, if it belongs there.
+     *
+     * This runs in O(size of the tree holding v1) time.
+     *
+     * @return the new edge
+     */
+    public CS16Edge<V> insertEdge(CS16Vertex<V> v1, CS16Vertex<V> v2, Integer weight) throws InvalidVertexException {
+        CS16Edge<V> e = _graph.insertEdge(v1, v2, weight);
+        if(v1 == v2) { //a self loop is never in the forest
+            return e;
+        }
+        List<CS16Edge<V>> path = this.treePath(v1, v2);
+        if(path == null) { //different trees, the edge joins them
+            this.link(e);
+            return e;
+        }
+        //same tree: the edge closes a cycle, keep the lighter of it and the heaviest path edge
+        CS16Edge<V> heaviest = null;
+        for(CS16Edge<V> p : path) {
+            if(heaviest == null || weightOf(p) > weightOf(heaviest)) {
+                heaviest = p;
+            }
+        }
+        if(weightOf(heaviest) > weightOf(e)) {
+            this.unlink(heaviest);
+            this.link(e);
+        }
+        return e;
+    }
+
+    /**
+     * Removes an edge from the graph. If it was in the forest, the lightest
+     * edge between the two halves of its tree takes its place.
+     *
+     * This runs in O(size of the tree) time plus the edges of the smaller
+     * half.
+     *
+     * @return the element of the removed edge
+     */
+    public Integer removeEdge(CS16Edge<V> e) throws InvalidEdgeException {
+        List<CS16Vertex<V>> ends = _graph.endVertices(e); //before the graph forgets them
+        Integer element = _graph.removeEdge(e);
+        if(!_forest.contains(e)) {
+            return element;
+        }
+        this.unlink(e);
+
+        Set<CS16Vertex<V>> side = this.smallerSide(ends.get(0), ends.get(1));
+        CS16Edge<V> best = null;
+        for(CS16Vertex<V> v : side) { //lightest edge leaving the smaller half
+            best = this.lightestCrossing(_graph.incomingEdges(v), v, side, best);
+            best = this.lightestCrossing(_graph.outgoingEdges(v), v, side, best);
+        }
+        if(best != null) {
+            this.link(best);
+        }
+        return element;
+    }
+
+    /**
+     * Changes the weight of an edge by replacing it with a new edge between
+     * the same vertices.
+     *
+     * @return the new edge, which takes the place of e
+     */
+    public CS16Edge<V> changeWeight(CS16Edge<V> e, Integer weight) throws InvalidEdgeException {
+        List<CS16Vertex<V>> ends = _graph.endVertices(e);
+        this.removeEdge(e);
+        return this.insertEdge(ends.get(0), ends.get(1), weight);
+    }
+
+    /**
+     * Removes a vertex and its edges from the graph, repairing the forest
+     * after each removed edge.
+     *
+     * @return the element of the removed vertex
+     */
+    public V removeVertex(CS16Vertex<V> v) throws InvalidVertexException {
+        Set<CS16Edge<V>> incident = new HashSet<>();
+        this.addAll(_graph.incomingEdges(v), incident);
+        this.addAll(_graph.outgoingEdges(v), incident);
+        for(CS16Edge<V> e : incident) {
+            this.removeEdge(e);
+        }
+        _treeEdges.remove(v);
+        return _graph.removeVertex(v);
+    }
+
+    /**
+     * Adds e to the forest.
+     */
+    private void link(CS16Edge<V> e) {
+        _forest.add(e);
+        _treeEdges.computeIfAbsent(e.getVertexOne(), k -> new HashSet<>()).add(e);
+        _treeEdges.computeIfAbsent(e.getVertexTwo(), k -> new HashSet<>()).add(e);
+        _totalWeight += weightOf(e);
+    }
+
+    /**
+     * Takes e out of the forest.
+     */
+    private void unlink(CS16Edge<V> e) {
+        _forest.remove(e);
+        _treeEdges.get(e.getVertexOne()).remove(e);
+        _treeEdges.get(e.getVertexTwo()).remove(e);
+        _totalWeight -= weightOf(e);
+    }
+
+    /**
+     * Returns the forest edges on the path from a to b, or null if they are
+     * in different trees.
+     */
+    private List<CS16Edge<V>> treePath(CS16Vertex<V> a, CS16Vertex<V> b) {
+        Map<CS16Vertex<V>, CS16Edge<V>> reachedBy = new HashMap<>(); //edge used to reach each vertex
+        ArrayDeque<CS16Vertex<V>> queue = new ArrayDeque<>();
+        reachedBy.put(a, null);
+        queue.add(a);
+        while(!queue.isEmpty() && !reachedBy.containsKey(b)) {
+            CS16Vertex<V> v = queue.poll();
+            for(CS16Edge<V> e : this.treeEdges(v)) {
+                CS16Vertex<V> u = otherEnd(e, v);
+                if(!reachedBy.containsKey(u)) {
+                    reachedBy.put(u, e);
+                    queue.add(u);
+                }
+            }
+        }
+        if(!reachedBy.containsKey(b)) {
+            return null;
+        }
+        List<CS16Edge<V>> path = new ArrayList<>();
+        for(CS16Vertex<V> v = b; v != a; v = otherEnd(reachedBy.get(v), v)) { //walk back to a
+            path.add(reachedBy.get(v));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the vertices of the smaller of the two trees holding a and b.
+     * Both trees are searched one vertex at a time, so this stops after
+     * about twice the size of the smaller one.
+     */
+    private Set<CS16Vertex<V>> smallerSide(CS16Vertex<V> a, CS16Vertex<V> b) {
+        Set<CS16Vertex<V>> seenA = new HashSet<>();
+        Set<CS16Vertex<V>> seenB = new HashSet<>();
+        ArrayDeque<CS16Vertex<V>> queueA = new ArrayDeque<>();
+        ArrayDeque<CS16Vertex<V>> queueB = new ArrayDeque<>();
+        seenA.add(a);
+        queueA.add(a);
+        seenB.add(b);
+        queueB.add(b);
+        while(true) {
+            if(!this.step(queueA, seenA)) {
+                return seenA;
+            }
+            if(!this.step(queueB, seenB)) {
+                return seenB;
+            }
+        }
+    }
+
+    /**
+     * Visits the next vertex of a tree search. Returns false once the search
+     * has run out of vertices.
+     */
+    private boolean step(ArrayDeque<CS16Vertex<V>> queue, Set<CS16Vertex<V>> seen) {
+        CS16Vertex<V> v = queue.poll();
+        if(v == null) {
+            return false;
+        }
+        for(CS16Edge<V> e : this.treeEdges(v)) {
+            CS16Vertex<V> u = otherEnd(e, v);
+            if(seen.add(u)) {
+                queue.add(u);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the lighter of best and the lightest edge in edges that leaves
+     * side.
+     */
+    private CS16Edge<V> lightestCrossing(Iterator<CS16Edge<V>> edges, CS16Vertex<V> v, Set<CS16Vertex<V>> side,
+            CS16Edge<V> best) {
+        while(edges.hasNext()) {
+            CS16Edge<V> e = edges.next();
+            if(!side.contains(_graph.opposite(v, e)) && (best == null || weightOf(e) < weightOf(best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the forest edges at v.
+     */
+    private Set<CS16Edge<V>> treeEdges(CS16Vertex<V> v) {
+        Set<CS16Edge<V>> edges = _treeEdges.get(v);
+        return (edges == null) ? Collections.emptySet() : edges;
+    }
+
+    private void addAll(Iterator<CS16Edge<V>> edges, Set<CS16Edge<V>> into) {
+        while(edges.hasNext()) {
+            into.add(edges.next());
+        }
+    }
+
+    private static <V> CS16Vertex<V> otherEnd(CS16Edge<V> e, CS16Vertex<V> v) {
+        return (e.getVertexOne() == v) ? e.getVertexTwo() : e.getVertexOne();
+    }
+
+    private static <V> int weightOf(CS16Edge<V> e) {
+        Integer element = e.element();
+        return (element == null) ? 0 : element;
+    }
+}
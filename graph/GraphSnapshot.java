@@ -0,0 +1,268 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.InvalidVertexException;
+
+/**
+ * An immutable, compressed-sparse-row (CSR) copy of a Graph, meant for
+ * algorithms that only read the graph and go over it many times.
+ *
+ * <p>
+ * Every vertex gets a dense index from 0 to numVertices() - 1. The outgoing
+ * edges of the vertex with index i are the slots outOffsets()[i] up to (but
+ * not including) outOffsets()[i + 1] of outTargets(), outWeights() and
+ * outEdges(): the index of the vertex on the other end, the int weight (0 for
+ * a null element) and the edge itself. The incoming edges are stored the same
+ * way in inOffsets(), inSources(), inWeights() and inEdges().
+ * </p>
+ *
+ * <p>
+ * The rows hold exactly what outgoingEdges and incomingEdges of the graph
+ * return, so for an undirected graph every edge shows up in the rows of both
+ * of its vertices. The arrays are handed out as they are, without copying, and
+ * must not be changed. Later changes to the graph are not seen by a snapshot.
+ * </p>
+ */
+public class GraphSnapshot<V> {
+
+    // dense index to vertex
+    private final CS16Vertex<V>[] _vertices;
+    // vertex number to dense index, -1 for numbers not in the snapshot
+    private final int[] _indexOfNumber;
+    // outgoing edges in CSR form
+    private final int[] _outOffsets;
+    private final int[] _outTargets;
+    private final int[] _outWeights;
+    private final CS16Edge<V>[] _outEdges;
+    // incoming edges in CSR form
+    private final int[] _inOffsets;
+    private final int[] _inSources;
+    private final int[] _inWeights;
+    private final CS16Edge<V>[] _inEdges;
+
+    /**
+     * Builds the snapshot of a graph. On an AdjacencyMatrixGraph the rows are
+     * read with reusable cursors and the weights come from the int weight
+     * store; on any other Graph the edge iterators and elements are used.
+     *
+     * <p>
+     * This runs in O(|V| + |E|) time, plus the row scans of the graph.
+     * </p>
+     *
+     * @param g
+     *            the graph to copy
+     * @return the snapshot
+     */
+    public static <V> GraphSnapshot<V> of(Graph<V> g) {
+        return new GraphSnapshot<V>(g);
+    }
+
+    @SuppressWarnings("unchecked")
+    private GraphSnapshot(Graph<V> g) {
+        //give every vertex a dense index
+        CS16Vertex<V>[] vertices = new CS16Vertex[Math.max(g.getNumVertices(), 1)];
+        int numVertices = 0;
+        int maxNumber = -1;
+        Iterator<CS16Vertex<V>> it = g.vertices();
+        while(it.hasNext()) {
+            CS16Vertex<V> v = it.next();
+            if(numVertices == vertices.length) {
+                vertices = Arrays.copyOf(vertices, numVertices * 2);
+            }
+            vertices[numVertices++] = v;
+            maxNumber = Math.max(maxNumber, v.getVertexNumber());
+        }
+        _vertices = Arrays.copyOf(vertices, numVertices);
+        _indexOfNumber = new int[maxNumber + 1];
+        Arrays.fill(_indexOfNumber, -1);
+        for(int i = 0; i < numVertices; i++) {
+            _indexOfNumber[_vertices[i].getVertexNumber()] = i;
+        }
+
+        Rows<V> out = new Rows<V>(numVertices);
+        Rows<V> in = new Rows<V>(numVertices);
+        if(g instanceof AdjacencyMatrixGraph) { //cursors and the int weight store
+            AdjacencyMatrixGraph<V> matrix = (AdjacencyMatrixGraph<V>) g;
+            this.fill(matrix, matrix.newOutgoingCursor(), out);
+            this.fill(matrix, matrix.newIncomingCursor(), in);
+        }
+        else {
+            for(int i = 0; i < numVertices; i++) {
+                out.startRow(i);
+                this.fill(g, _vertices[i], g.outgoingEdges(_vertices[i]), out);
+                in.startRow(i);
+                this.fill(g, _vertices[i], g.incomingEdges(_vertices[i]), in);
+            }
+        }
+        out.finish();
+        in.finish();
+
+        _outOffsets = out.offsets;
+        _outTargets = out.others;
+        _outWeights = out.weights;
+        _outEdges = out.edges;
+        _inOffsets = in.offsets;
+        _inSources = in.others;
+        _inWeights = in.weights;
+        _inEdges = in.edges;
+    }
+
+    /**
+     * Adds the rows of every vertex of a matrix graph, reading them with one
+     * reusable cursor.
+     */
+    private void fill(AdjacencyMatrixGraph<V> matrix, AdjacencyMatrixGraph<V>.EdgeCursor cursor, Rows<V> rows) {
+        for(int i = 0; i < _vertices.length; i++) {
+            rows.startRow(i);
+            cursor.reset(_vertices[i]);
+            while(cursor.hasNext()) {
+                CS16Edge<V> e = cursor.next();
+                rows.add(this.indexOf(matrix.opposite(_vertices[i], e)), cursor.lastWeight(), e);
+            }
+        }
+    }
+
+    /**
+     * Adds the edges of one row of any graph.
+     */
+    private void fill(Graph<V> g, CS16Vertex<V> v, Iterator<CS16Edge<V>> edges, Rows<V> rows) {
+        while(edges.hasNext()) {
+            CS16Edge<V> e = edges.next();
+            Integer element = e.element();
+            rows.add(this.indexOf(g.opposite(v, e)), (element == null) ? 0 : element, e);
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     */
+    public int numVertices() {
+        return _vertices.length;
+    }
+
+    /**
+     * Returns the number of slots in the outgoing rows, which is the number
+     * of edges for a directed graph (and twice that, minus self loops, for an
+     * undirected one).
+     */
+    public int numOutSlots() {
+        return _outTargets.length;
+    }
+
+    /**
+     * Returns the vertex with dense index i.
+     */
+    public CS16Vertex<V> vertex(int i) {
+        return _vertices[i];
+    }
+
+    /**
+     * Returns the dense index of a vertex, found through its vertex number.
+     *
+     * @throws InvalidVertexException
+     *             Thrown when the vertex is null or not in the snapshot.
+     */
+    public int indexOf(CS16Vertex<V> v) throws InvalidVertexException {
+        if(v == null) {
+            throw new InvalidVertexException("Invalid Vertex in parameter");
+        }
+        int num = v.getVertexNumber();
+        if(num < 0 || num >= _indexOfNumber.length || _indexOfNumber[num] < 0 || _vertices[_indexOfNumber[num]] != v) {
+            throw new InvalidVertexException("Vertex is not in the snapshot");
+        }
+        return _indexOfNumber[num];
+    }
+
+    /**
+     * Returns the number of outgoing edges of the vertex with index i.
+     */
+    public int outDegree(int i) {
+        return _outOffsets[i + 1] - _outOffsets[i];
+    }
+
+    /**
+     * Returns the number of incoming edges of the vertex with index i.
+     */
+    public int inDegree(int i) {
+        return _inOffsets[i + 1] - _inOffsets[i];
+    }
+
+    public int[] outOffsets() {
+        return _outOffsets;
+    }
+
+    public int[] outTargets() {
+        return _outTargets;
+    }
+
+    public int[] outWeights() {
+        return _outWeights;
+    }
+
+    public CS16Edge<V>[] outEdges() {
+        return _outEdges;
+    }
+
+    public int[] inOffsets() {
+        return _inOffsets;
+    }
+
+    public int[] inSources() {
+        return _inSources;
+    }
+
+    public int[] inWeights() {
+        return _inWeights;
+    }
+
+    public CS16Edge<V>[] inEdges() {
+        return _inEdges;
+    }
+
+    /**
+     * Growable CSR arrays used while a snapshot is built.
+     */
+    private static class Rows<V> {
+        private int[] offsets;
+        private int[] others;
+        private int[] weights;
+        private CS16Edge<V>[] edges;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private Rows(int numVertices) {
+            offsets = new int[numVertices + 1];
+            others = new int[16];
+            weights = new int[16];
+            edges = new CS16Edge[16];
+        }
+
+        private void startRow(int i) {
+            offsets[i] = size;
+        }
+
+        private void add(int other, int weight, CS16Edge<V> e) {
+            if(size == others.length) { //double the arrays
+                others = Arrays.copyOf(others, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                edges = Arrays.copyOf(edges, size * 2);
+            }
+            others[size] = other;
+            weights[size] = weight;
+            edges[size] = e;
+            size++;
+        }
+
+        private void finish() {
+            offsets[offsets.length - 1] = size;
+            others = Arrays.copyOf(others, size);
+            weights = Arrays.copyOf(weights, size);
+            edges = Arrays.copyOf(edges, size);
+        }
+    }
+}
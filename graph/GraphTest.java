@@ -692,6 +692,372 @@ public class GraphTest {
     	_dirGraph.areAdjacent(A, B);
     }
     
+    //tests that the graph can hold more than MAX_VERTICES vertices, with edges far apart in the matrix
+    @Test(timeout = 10000)
+    public void testMoreThanMaxVertices() {
+    	int total = MAX_VERTICES * 3;
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < total; i++) {
+    		vertices.add(_dirGraph.insertVertex("V" + i));
+    	}
+    	CS16Vertex<String> first = vertices.get(0);
+    	CS16Vertex<String> last = vertices.get(total - 1);
+    	
+    	CS16Edge<String> firstToLast = _dirGraph.insertEdge(first, last, 1);
+    	CS16Edge<String> lastToFirst = _dirGraph.insertEdge(last, first, 2);
+    	
+    	assertThat(_dirGraph.getNumVertices(), is(total));
+    	assertTrue(_dirGraph.areAdjacent(first, last));
+    	assertTrue(_dirGraph.areAdjacent(last, first));
+    	assertThat(_dirGraph.connectingEdge(first, last), is(firstToLast));
+    	assertThat(_dirGraph.numOutgoingEdges(last), is(1));
+    	assertThat(_dirGraph.incomingEdges(first).next(), is(lastToFirst));
+    	
+    	_dirGraph.removeVertex(last);
+    	assertThat(_dirGraph.numOutgoingEdges(first), is(0));
+    	assertFalse(_dirGraph.incomingEdges(first).hasNext());
+    }
+    
+    //tests removing each incoming edge while iterating over the incoming edges
+    @Test(timeout = 10000)
+    public void testRemoveWhileIteratingIncoming() {
+    	CS16Vertex<String> A = _dirGraph.insertVertex("A");
+    	CS16Vertex<String> B = _dirGraph.insertVertex("B");
+    	CS16Vertex<String> C = _dirGraph.insertVertex("C");
+    	CS16Vertex<String> D = _dirGraph.insertVertex("D");
+    	
+    	_dirGraph.insertEdge(B, A, 1);
+    	_dirGraph.insertEdge(C, A, 2);
+    	_dirGraph.insertEdge(D, A, 3);
+    	_dirGraph.insertEdge(A, B, 4);
+    	
+    	int seen = 0;
+    	Iterator<CS16Edge<String>> incoming = _dirGraph.incomingEdges(A);
+    	while (incoming.hasNext()) {
+    		_dirGraph.removeEdge(incoming.next());
+    		seen++;
+    	}
+    	
+    	assertThat(seen, is(3));
+    	assertFalse(_dirGraph.incomingEdges(A).hasNext());
+    	assertThat(_dirGraph.numOutgoingEdges(A), is(1));
+    }
+    
+    //tests that removing a vertex removes all of its edges, including a self loop
+    @Test(timeout = 10000)
+    public void testRemoveVertexRemovesAllEdges() {
+    	CS16Vertex<String> A = _graph.insertVertex("A");
+    	CS16Vertex<String> B = _graph.insertVertex("B");
+    	CS16Vertex<String> C = _graph.insertVertex("C");
+    	
+    	_graph.insertEdge(A, A, 1);
+    	_graph.insertEdge(A, B, 2);
+    	_graph.insertEdge(C, A, 3);
+    	CS16Edge<String> bc = _graph.insertEdge(B, C, 4);
+    	
+    	_graph.removeVertex(A);
+    	
+    	List<CS16Edge<String>> actualEdges = new ArrayList<CS16Edge<String>>();
+    	Iterator<CS16Edge<String>> it = _graph.edges();
+    	while (it.hasNext()) {
+    		actualEdges.add(it.next());
+    	}
+    	assertThat(actualEdges.size(), is(1));
+    	assertThat(actualEdges.contains(bc), is(true));
+    	assertFalse(_graph.areAdjacent(B, A));
+    	assertFalse(_graph.areAdjacent(C, A));
+    	
+    	//the number of A is reused and the new vertex has no edges
+    	CS16Vertex<String> D = _graph.insertVertex("D");
+    	assertFalse(_graph.incomingEdges(D).hasNext());
+    	assertFalse(_graph.outgoingEdges(D).hasNext());
+    }
+    
+    //tests that edges from before clear() do not show up between the new vertices that reuse their numbers
+    @Test(timeout = 10000)
+    public void testClearThenReuse() {
+    	CS16Vertex<String> A = _dirGraph.insertVertex("A");
+    	CS16Vertex<String> B = _dirGraph.insertVertex("B");
+    	_dirGraph.insertEdge(A, B, 1);
+    	_dirGraph.insertEdge(B, A, 2);
+    	
+    	_dirGraph.clear();
+    	
+    	CS16Vertex<String> C = _dirGraph.insertVertex("C");
+    	CS16Vertex<String> D = _dirGraph.insertVertex("D");
+    	assertFalse(_dirGraph.areAdjacent(C, D));
+    	assertFalse(_dirGraph.areAdjacent(D, C));
+    	assertFalse(_dirGraph.incomingEdges(C).hasNext());
+    	assertThat(_dirGraph.numOutgoingEdges(D), is(0));
+    	
+    	CS16Edge<String> cd = _dirGraph.insertEdge(C, D, 3);
+    	assertThat(_dirGraph.connectingEdge(C, D), is(cd));
+    	assertFalse(_dirGraph.areAdjacent(D, C));
+    	assertThat(_dirGraph.numOutgoingEdges(C), is(1));
+    	assertThat(_dirGraph.numOutgoingEdges(D), is(0));
+    }
+    
+    //tests that undirected edges can be followed both ways after toggling to directed, and back again
+    @Test(timeout = 10000)
+    public void testToggleDirectedKeepsEdges() {
+    	CS16Vertex<String> A = _graph.insertVertex("A");
+    	CS16Vertex<String> B = _graph.insertVertex("B");
+    	CS16Vertex<String> C = _graph.insertVertex("C");
+    	CS16Edge<String> ab = _graph.insertEdge(A, B, 1);
+    	CS16Edge<String> cb = _graph.insertEdge(C, B, 2);
+    	
+    	_graph.toggleDirected();
+    	
+    	assertThat(_graph.connectingEdge(A, B), is(ab));
+    	assertThat(_graph.connectingEdge(B, A), is(ab));
+    	assertThat(_graph.connectingEdge(B, C), is(cb));
+    	assertThat(_graph.numOutgoingEdges(B), is(2));
+    	assertThat(_graph.numOutgoingEdges(A), is(1));
+    	assertFalse(_graph.areAdjacent(A, C));
+    	
+    	_graph.toggleDirected();
+    	
+    	assertThat(_graph.connectingEdge(B, A), is(ab));
+    	assertThat(_graph.connectingEdge(C, B), is(cb));
+    	int incoming = 0;
+    	Iterator<CS16Edge<String>> it = _graph.incomingEdges(B);
+    	while (it.hasNext()) {
+    		it.next();
+    		incoming++;
+    	}
+    	assertThat(incoming, is(2));
+    	
+    	_graph.removeEdge(ab);
+    	assertFalse(_graph.areAdjacent(A, B));
+    	assertFalse(_graph.areAdjacent(B, A));
+    }
+    
+    //tests that a one-way edge becomes an edge both ways when a directed graph is toggled to undirected
+    @Test(timeout = 10000)
+    public void testToggleOneWayEdge() {
+    	CS16Vertex<String> A = _dirGraph.insertVertex("A");
+    	CS16Vertex<String> B = _dirGraph.insertVertex("B");
+    	CS16Vertex<String> C = _dirGraph.insertVertex("C");
+    	CS16Edge<String> ab = _dirGraph.insertEdge(A, B, 1);
+    	CS16Edge<String> cb = _dirGraph.insertEdge(C, B, 2);
+    	assertFalse(_dirGraph.areAdjacent(B, A));
+    	
+    	_dirGraph.toggleDirected();
+    	
+    	assertTrue(_dirGraph.areAdjacent(A, B));
+    	assertTrue(_dirGraph.areAdjacent(B, A));
+    	assertThat(_dirGraph.connectingEdge(B, A), is(ab));
+    	assertThat(_dirGraph.connectingEdge(B, C), is(cb));
+    	assertFalse(_dirGraph.areAdjacent(A, C));
+    	
+    	_dirGraph.toggleDirected();
+    	
+    	assertThat(_dirGraph.connectingEdge(A, B), is(ab));
+    	assertThat(_dirGraph.connectingEdge(B, A), is(ab));
+    	assertThat(_dirGraph.numOutgoingEdges(B), is(2));
+    	Iterator<CS16Edge<String>> it = _dirGraph.edges();
+    	int edges = 0;
+    	while (it.hasNext()) {
+    		it.next();
+    		edges++;
+    	}
+    	assertThat(edges, is(2));
+    }
+    
+    //tests that toggling to undirected is refused, and changes nothing, when two edges link two vertices both ways
+    @Test(timeout = 10000)
+    public void testToggleTwoWayPairRefused() {
+    	CS16Vertex<String> A = _dirGraph.insertVertex("A");
+    	CS16Vertex<String> B = _dirGraph.insertVertex("B");
+    	CS16Edge<String> ab = _dirGraph.insertEdge(A, B, 1);
+    	CS16Edge<String> ba = _dirGraph.insertEdge(B, A, 2);
+    	
+    	try {
+    		_dirGraph.toggleDirected();
+    		fail("two edges cannot become one undirected edge");
+    	} catch (DirectionException e) {
+    	}
+    	
+    	assertThat(_dirGraph.numOutgoingEdges(A), is(1));
+    	assertThat(_dirGraph.connectingEdge(A, B), is(ab));
+    	assertThat(_dirGraph.connectingEdge(B, A), is(ba));
+    	_dirGraph.removeEdge(ba);
+    	assertFalse(_dirGraph.areAdjacent(B, A));
+    	assertTrue(_dirGraph.areAdjacent(A, B));
+    }
+    
+    //tests that vertices and edges stay the same objects as the graph fills up and thins out again
+    @Test(timeout = 10000)
+    public void testDenseThenSparseKeepsIdentities() {
+    	int total = 80;
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < total; i++) {
+    		vertices.add(_dirGraph.insertVertex("V" + i));
+    	}
+    	List<CS16Edge<String>> edges = new ArrayList<CS16Edge<String>>();
+    	for (int i = 0; i < total; i++) {
+    		for (int j = 0; j < total; j += 2) {
+    			edges.add(_dirGraph.insertEdge(vertices.get(i), vertices.get(j), i + j));
+    		}
+    	}
+    	for (CS16Edge<String> e : edges) {
+    		assertThat(_dirGraph.connectingEdge(e.getVertexOne(), e.getVertexTwo()), is(e));
+    	}
+    	assertStoredAsMatrix(_dirGraph, true); //half of all cells are filled
+    	
+    	//remove all but the first row of edges
+    	for (int k = total / 2; k < edges.size(); k++) {
+    		_dirGraph.removeEdge(edges.get(k));
+    	}
+    	CS16Vertex<String> extra = _dirGraph.insertVertex("extra");
+    	
+    	assertThat(_dirGraph.numOutgoingEdges(vertices.get(0)), is(total / 2));
+    	assertThat(_dirGraph.numOutgoingEdges(vertices.get(1)), is(0));
+    	for (int k = 0; k < total / 2; k++) {
+    		CS16Edge<String> e = edges.get(k);
+    		assertThat(_dirGraph.connectingEdge(e.getVertexOne(), e.getVertexTwo()), is(e));
+    	}
+    	assertThat(_dirGraph.getNumVertices(), is(total + 1));
+    	assertFalse(vertices.get(0).getVertexNumber() == extra.getVertexNumber());
+    	assertStoredAsMatrix(_dirGraph, false); //back to lists
+    }
+    
+    //tests that toggled edges keep the same adjacencies when the graph moves to a matrix and back
+    @Test(timeout = 10000)
+    public void testToggleThenDenseThenSparse() {
+    	int total = 80;
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < total; i++) {
+    		vertices.add(_dirGraph.insertVertex("V" + i));
+    	}
+    	CS16Vertex<String> A = vertices.get(0);
+    	CS16Vertex<String> B = vertices.get(1);
+    	CS16Vertex<String> C = vertices.get(2);
+    	CS16Vertex<String> D = vertices.get(3);
+    	CS16Edge<String> ab = _dirGraph.insertEdge(A, B, 1);
+    	_dirGraph.toggleDirected(); //A->B now links A and B both ways
+    	assertStoredAsMatrix(_dirGraph, false);
+    	
+    	//fill the graph with undirected edges among the other vertices
+    	List<CS16Edge<String>> filler = new ArrayList<CS16Edge<String>>();
+    	for (int i = 4; i < total; i++) {
+    		for (int j = i + 1; j < total; j++) {
+    			if ((i + j) % 3 == 0) {
+    				filler.add(_dirGraph.insertEdge(vertices.get(i), vertices.get(j), i + j));
+    			}
+    		}
+    	}
+    	assertStoredAsMatrix(_dirGraph, true);
+    	assertTrue(_dirGraph.areAdjacent(B, A));
+    	assertThat(_dirGraph.connectingEdge(B, A), is(ab));
+    	
+    	//toggle while stored as a matrix, add a one-way edge and fold it back
+    	_dirGraph.toggleDirected();
+    	CS16Edge<String> cd = _dirGraph.insertEdge(C, D, 2);
+    	assertFalse(_dirGraph.areAdjacent(D, C));
+    	_dirGraph.toggleDirected();
+    	assertStoredAsMatrix(_dirGraph, true);
+    	
+    	for (CS16Edge<String> e : filler) {
+    		_dirGraph.removeEdge(e);
+    	}
+    	assertStoredAsMatrix(_dirGraph, false);
+    	assertThat(_dirGraph.connectingEdge(A, B), is(ab));
+    	assertThat(_dirGraph.connectingEdge(B, A), is(ab));
+    	assertThat(_dirGraph.connectingEdge(D, C), is(cd));
+    	assertFalse(_dirGraph.areAdjacent(A, C));
+    }
+
+    //tests that adding and removing one vertex at the size where a matrix is allowed does not switch every time
+    @Test(timeout = 10000)
+    public void testInsertRemoveAtVertexBoundary() {
+    	int total = 64;
+    	List<CS16Vertex<String>> vertices = new ArrayList<CS16Vertex<String>>();
+    	for (int i = 0; i < total; i++) {
+    		vertices.add(_dirGraph.insertVertex("V" + i));
+    	}
+    	for (int i = 0; i < total; i++) {
+    		for (int j = 0; j < total; j += 2) {
+    			_dirGraph.insertEdge(vertices.get(i), vertices.get(j), i + j);
+    		}
+    	}
+    	assertStoredAsMatrix(_dirGraph, true); //half of all cells are filled
+    	
+    	//go back and forth over 64 vertices, the graph stays dense throughout
+    	CS16Vertex<String> last = vertices.get(total - 1);
+    	for (int k = 0; k < 20; k++) {
+    		_dirGraph.removeVertex(last);
+    		assertStoredAsMatrix(_dirGraph, true);
+    		assertThat(_dirGraph.getNumVertices(), is(total - 1));
+    		last = _dirGraph.insertVertex("V" + k);
+    		assertStoredAsMatrix(_dirGraph, true);
+    	}
+    	int numEdges = 0;
+    	Iterator<CS16Edge<String>> it = _dirGraph.edges();
+    	while (it.hasNext()) {
+    		it.next();
+    		numEdges++;
+    	}
+    	assertThat(numEdges, is((total - 1) * total / 2));
+    	assertThat(_dirGraph.numOutgoingEdges(vertices.get(0)), is(total / 2));
+    	
+    	//well below the vertex threshold it goes back to lists, however dense
+    	for (int i = 0; i < total / 2 + 1; i++) {
+    		_dirGraph.removeVertex(vertices.get(i));
+    	}
+    	assertStoredAsMatrix(_dirGraph, false);
+    	assertThat(_dirGraph.getNumVertices(), is(total / 2 - 1));
+    	assertThat(_dirGraph.numOutgoingEdges(vertices.get(total / 2 + 1)), is(total / 4 - 1));
+    }
+
+    //tests that a CSR snapshot holds the same rows as the graph and ignores later changes
+    @Test(timeout = 10000)
+    public void testSnapshotMatchesGraph() {
+    	CS16Vertex<String> A = _dirGraph.insertVertex("A");
+    	CS16Vertex<String> B = _dirGraph.insertVertex("B");
+    	CS16Vertex<String> C = _dirGraph.insertVertex("C");
+    	CS16Edge<String> ab = _dirGraph.insertEdge(A, B, 4);
+    	CS16Edge<String> ac = _dirGraph.insertEdge(A, C, 7);
+    	CS16Edge<String> cb = _dirGraph.insertEdge(C, B, 2);
+
+    	GraphSnapshot<String> snap = GraphSnapshot.of(_dirGraph);
+    	assertThat(snap.numVertices(), is(3));
+    	assertThat(snap.numOutSlots(), is(3));
+    	int a = snap.indexOf(A);
+    	int b = snap.indexOf(B);
+    	int c = snap.indexOf(C);
+    	assertThat(snap.vertex(a), is(A));
+    	assertThat(snap.outDegree(a), is(2));
+    	assertThat(snap.outDegree(b), is(0));
+    	assertThat(snap.inDegree(b), is(2));
+
+    	int weights = 0;
+    	for (int k = snap.outOffsets()[a]; k < snap.outOffsets()[a + 1]; k++) {
+    		CS16Edge<String> e = snap.outEdges()[k];
+    		assertTrue(e == ab || e == ac);
+    		assertThat(snap.outTargets()[k], is(e == ab ? b : c));
+    		weights += snap.outWeights()[k];
+    	}
+    	assertThat(weights, is(11));
+    	int k = snap.inOffsets()[b];
+    	assertThat(snap.inSources()[k] + snap.inSources()[k + 1], is(a + c));
+    	assertThat(snap.inWeights()[k] + snap.inWeights()[k + 1], is(6));
+
+    	_dirGraph.removeEdge(cb);
+    	_dirGraph.insertVertex("D");
+    	assertThat(snap.numVertices(), is(3));
+    	assertThat(snap.inDegree(b), is(2));
+    }
+    
+    /*
+     * Checks how an AdaptiveGraph is stored right now; other graphs never switch.
+     */
+    private static void assertStoredAsMatrix(Graph<String> g, boolean matrix) {
+    	if (g instanceof AdaptiveGraph) {
+    		assertThat(((AdaptiveGraph<String>) g).isMatrix(), is(matrix));
+    	}
+    }
+    
     /*
      * List of graphs for testing!
      */
@@ -699,6 +1065,8 @@ public class GraphTest {
     public static Collection<String> graphs() {
         List<String> names = new ArrayList<>();
         names.add("graph.AdjacencyMatrixGraph");
+        names.add("graph.AdjacencyListGraph");
+        names.add("graph.AdaptiveGraph");
         return names;
     }
     
@@ -0,0 +1,172 @@
+package graph;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import support.graph.CS16Decorator;
+
+/**
+ * Base class of the array-backed decorators. Every key is turned into a small
+ * non-negative index (for vertices, their vertex number) and the decoration
+ * of a key lives in that slot of an array instead of a HashMap, so no hashing
+ * is needed. This class keeps track of which slots are decorated and grows the
+ * arrays when a bigger index shows up; the subclasses hold the values.
+ *
+ * <p>
+ * Two keys that map to the same index share one slot, so the index function
+ * has to be unique among the keys decorated at the same time.
+ * </p>
+ */
+abstract class IndexedDecorator<K, V> implements CS16Decorator<K, V> {
+
+    // turns a key into its slot
+    private final ToIntFunction<? super K> _index;
+    // the key decorated in each slot, null when the slot is empty
+    private Object[] _keys;
+    // number of decorated keys
+    private int _size;
+
+    /**
+     * Makes an empty decorator with room for indices below capacity.
+     */
+    IndexedDecorator(ToIntFunction<? super K> index, int capacity) {
+        _index = index;
+        _keys = new Object[Math.max(capacity, 1)];
+        _size = 0;
+    }
+
+    /**
+     * Returns the slot of a key, or -1 if it is past the end of the arrays.
+     */
+    protected final int slot(K key) {
+        int i = _index.applyAsInt(key);
+        if(i < 0) {
+            throw new IllegalArgumentException("Negative index for decorated key");
+        }
+        return (i < _keys.length) ? i : -1;
+    }
+
+    /**
+     * Returns the slot of a key, growing the arrays so it fits, and marks the
+     * key as decorated.
+     */
+    protected final int claim(K key) {
+        int i = _index.applyAsInt(key);
+        if(i < 0) {
+            throw new IllegalArgumentException("Negative index for decorated key");
+        }
+        if(i >= _keys.length) { //double until it fits
+            int capacity = _keys.length;
+            while(capacity <= i) {
+                capacity *= 2;
+            }
+            _keys = Arrays.copyOf(_keys, capacity);
+            this.grow(capacity);
+        }
+        if(_keys[i] == null) {
+            _size++;
+        }
+        _keys[i] = key;
+        return i;
+    }
+
+    /**
+     * Empties the slot of a key. Returns the slot, or -1 if the key was not
+     * decorated.
+     */
+    protected final int release(K key) {
+        int i = this.slot(key);
+        if(i < 0 || _keys[i] == null) {
+            return -1;
+        }
+        _keys[i] = null;
+        _size--;
+        return i;
+    }
+
+    /**
+     * Grows the value arrays to the new capacity.
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * Returns true if there is a decoration for the given key, false otherwise.
+     *
+     * @param key
+     *          a key that may or may not be in your decorator
+     * @return a boolean value that returns true if the key is valid
+     */
+    @Override
+    public boolean hasDecoration(K key) {
+        int i = this.slot(key);
+        return i >= 0 && _keys[i] != null;
+    }
+
+    /**
+     * Returns the number of decorated keys.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns a Set view of all keys for this decoration. The view walks the
+     * slot array, so iterating it takes time in the highest index used.
+     *
+     * @return a Set of all keys in your decorator
+     */
+    @Override
+    public Set<K> getKeys() {
+        return new AbstractSet<K>() {
+            @Override
+            public int size() {
+                return _size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                try {
+                    return o != null && IndexedDecorator.this.hasDecoration((K) o);
+                }
+                catch(ClassCastException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                return new Iterator<K>() {
+                    private int _next = this.advance(0);
+
+                    private int advance(int from) {
+                        while(from < _keys.length && _keys[from] == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return _next < _keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public K next() {
+                        if(!this.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        K key = (K) _keys[_next];
+                        _next = this.advance(_next + 1);
+                        return key;
+                    }
+                };
+            }
+        };
+    }
+}
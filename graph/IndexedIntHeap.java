@@ -0,0 +1,229 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of int handles ordered by int keys. Handles are small
+ * non-negative ints (for graph algorithms, vertex numbers) and a position
+ * array maps every handle to its place in the heap, so a handle's key can be
+ * found and lowered without holding on to any entry object. Nothing is boxed
+ * and nothing is allocated after the arrays are created.
+ *
+ * <p>
+ * With d children per node the heap is log_d(n) levels deep, which makes
+ * decreaseKey (the common operation in Prim-Jarnik and Dijkstra) cheaper
+ * than in a binary heap, at the price of comparing d children in removeMin.
+ * </p>
+ */
+public class IndexedIntHeap {
+
+    // children per node
+    private static final int ARITY = 4;
+
+    // handle stored at each heap position
+    private int[] _heap;
+    // key of each handle
+    private int[] _keys;
+    // heap position of each handle, -1 when it is not in the heap
+    private int[] _pos;
+    // number of handles in the heap
+    private int _size;
+
+    /**
+     * Makes an empty heap for handles 0 to capacity - 1. Bigger handles make
+     * the arrays grow.
+     */
+    public IndexedIntHeap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        _heap = new int[capacity];
+        _keys = new int[capacity];
+        _pos = new int[capacity];
+        Arrays.fill(_pos, -1);
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of handles in the heap.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns true if the heap has no handles.
+     */
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * Returns true if the handle is in the heap.
+     */
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < _pos.length && _pos[handle] >= 0;
+    }
+
+    /**
+     * Returns the key of a handle in the heap.
+     *
+     * @throws NoSuchElementException
+     *             Thrown when the handle is not in the heap.
+     */
+    public int key(int handle) {
+        if(!this.contains(handle)) {
+            throw new NoSuchElementException("Handle is not in the heap");
+        }
+        return _keys[handle];
+    }
+
+    /**
+     * Adds a handle with the given key.
+     *
+     * <p>
+     * This runs in O(log n) time (amortized, if the arrays have to grow).
+     * </p>
+     *
+     * @throws IllegalArgumentException
+     *             Thrown when the handle is negative or already in the heap.
+     */
+    public void insert(int handle, int key) {
+        if(handle < 0 || this.contains(handle)) {
+            throw new IllegalArgumentException("Handle is negative or already in the heap");
+        }
+        if(handle >= _pos.length) {
+            this.grow(handle);
+        }
+        _keys[handle] = key;
+        _heap[_size] = handle;
+        _pos[handle] = _size;
+        _size++;
+        this.siftUp(_size - 1);
+    }
+
+    /**
+     * Lowers the key of a handle in the heap. A key that is not lower than
+     * the current one is ignored, so this can be called for every relaxation.
+     *
+     * <p>
+     * This runs in O(log n) time.
+     * </p>
+     *
+     * @return true if the key was lowered
+     * @throws NoSuchElementException
+     *             Thrown when the handle is not in the heap.
+     */
+    public boolean decreaseKey(int handle, int key) {
+        if(!this.contains(handle)) {
+            throw new NoSuchElementException("Handle is not in the heap");
+        }
+        if(key >= _keys[handle]) {
+            return false;
+        }
+        _keys[handle] = key;
+        this.siftUp(_pos[handle]);
+        return true;
+    }
+
+    /**
+     * Returns the handle with the smallest key without removing it.
+     *
+     * @throws NoSuchElementException
+     *             Thrown when the heap is empty.
+     */
+    public int minHandle() {
+        if(_size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return _heap[0];
+    }
+
+    /**
+     * Removes and returns the handle with the smallest key.
+     *
+     * <p>
+     * This runs in O(d log n) time.
+     * </p>
+     *
+     * @throws NoSuchElementException
+     *             Thrown when the heap is empty.
+     */
+    public int removeMin() {
+        int min = this.minHandle();
+        _size--;
+        _pos[min] = -1;
+        if(_size > 0) { //move the last handle to the root and push it down
+            int last = _heap[_size];
+            _heap[0] = last;
+            _pos[last] = 0;
+            this.siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Moves the handle at position i up until its parent is not bigger.
+     */
+    private void siftUp(int i) {
+        int handle = _heap[i];
+        int key = _keys[handle];
+        while(i > 0) {
+            int parent = (i - 1) / ARITY;
+            int p = _heap[parent];
+            if(_keys[p] <= key) {
+                break;
+            }
+            _heap[i] = p; //move the parent down a level
+            _pos[p] = i;
+            i = parent;
+        }
+        _heap[i] = handle;
+        _pos[handle] = i;
+    }
+
+    /**
+     * Moves the handle at position i down until no child is smaller.
+     */
+    private void siftDown(int i) {
+        int handle = _heap[i];
+        int key = _keys[handle];
+        while(true) {
+            int first = i * ARITY + 1;
+            if(first >= _size) {
+                break;
+            }
+            //find the smallest child
+            int best = first;
+            int end = Math.min(first + ARITY, _size);
+            for(int c = first + 1; c < end; c++) {
+                if(_keys[_heap[c]] < _keys[_heap[best]]) {
+                    best = c;
+                }
+            }
+            int b = _heap[best];
+            if(_keys[b] >= key) {
+                break;
+            }
+            _heap[i] = b; //move the child up a level
+            _pos[b] = i;
+            i = best;
+        }
+        _heap[i] = handle;
+        _pos[handle] = i;
+    }
+
+    /**
+     * Doubles the arrays until the handle fits.
+     */
+    private void grow(int handle) {
+        int capacity = _pos.length;
+        while(capacity <= handle) {
+            capacity *= 2;
+        }
+        int old = _pos.length;
+        _heap = Arrays.copyOf(_heap, capacity);
+        _keys = Arrays.copyOf(_keys, capacity);
+        _pos = Arrays.copyOf(_pos, capacity);
+        Arrays.fill(_pos, old, capacity, -1);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -159,6 +160,55 @@ public class MsfTest {
     	
     }
     
+    //Test on a bigger random graph that the forest weighs the same as the one the original heap engine finds
+    @Test
+    public void randomGraphMatchesReferenceTest() {
+        fillRandom(new Random(16), 120, 600);
+        assertMatchesReference();
+    }
+
+    //Same check on a dense graph, where MyPrimJarnik switches to scanning arrays instead of a heap
+    @Test
+    public void denseRandomGraphMatchesReferenceTest() {
+        fillRandom(new Random(61), 70, 3000);
+        assertMatchesReference();
+    }
+
+    //inserts numVertices vertices and tries to add numTries random edges between them
+    private void fillRandom(Random random, int numVertices, int numTries) {
+        List<CS16Vertex<String>> vertices = new ArrayList<>();
+        for (int i = 0; i < numVertices; i++) {
+            vertices.add(_graph.insertVertex("V" + i));
+        }
+        for (int k = 0; k < numTries; k++) {
+            CS16Vertex<String> a = vertices.get(random.nextInt(vertices.size()));
+            CS16Vertex<String> b = vertices.get(random.nextInt(vertices.size()));
+            if (a != b && !_graph.areAdjacent(a, b)) {
+                _graph.insertEdge(a, b, random.nextInt(50));
+            }
+        }
+    }
+
+    //compares the forest of _msf with the one from the original adaptable heap engine
+    private void assertMatchesReference() {
+        MyPrimJarnik<String> reference = new MyPrimJarnik<>();
+        reference.setEngine(MyPrimJarnik.Engine.ADAPTABLE_HEAP);
+        Collection<CS16Edge<String>> expected = reference.genMinSpanForest(_graph, null);
+        Collection<CS16Edge<String>> MSF = _msf.genMinSpanForest(_graph, null);
+
+        assertThat(MSF.size(), is(expected.size()));
+        assertThat(totalWeight(MSF), is(totalWeight(expected)));
+    }
+
+    //adds up the weights of the edges
+    private static int totalWeight(Collection<CS16Edge<String>> edges) {
+        int total = 0;
+        for (CS16Edge<String> e : edges) {
+            total += e.element();
+        }
+        return total;
+    }
+    
     /*
      * This is the method that, using junit magic, provides the list of MSF algorithms
      * that should be created and be tested via the methods above.
@@ -170,6 +220,8 @@ public class MsfTest {
     public static Collection<String> msts() {
         List<String> algoNames = new ArrayList<>();
         algoNames.add("graph.MyPrimJarnik");
+        algoNames.add("graph.MyKruskal");
+        algoNames.add("graph.MyBoruvka");
         return algoNames;
     }
 
@@ -0,0 +1,202 @@
+package graph;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+
+/**
+ * This class tests the tools built around the MSF algorithms (the dynamic
+ * forest, step recording and streaming) on an undirected AdjacencyMatrixGraph
+ * with a 'String' type parameter for the vertices. Unlike MsfTest it is not
+ * run once per algorithm: each test names the algorithms it is about.
+ *
+ * Before each test is run, '_graph' is reset to a new, empty graph.
+ */
+public class MsfToolsTest {
+
+    private Graph<String> _graph;
+
+    //Test that a DynamicMinSpanForest keeps the same weight as a fresh forest through random updates
+    @Test
+    public void dynamicForestMatchesRebuildTest() {
+        Random random = new Random(7);
+        fillRandom(random, 60, 200);
+        DynamicMinSpanForest<String> dynamic = new DynamicMinSpanForest<>(_graph);
+        MyPrimJarnik<String> rebuild = new MyPrimJarnik<>();
+        rebuild.setEngine(MyPrimJarnik.Engine.ADAPTABLE_HEAP);
+        for (int step = 0; step < 300; step++) {
+            List<CS16Edge<String>> edges = new ArrayList<>();
+            Iterator<CS16Edge<String>> it = _graph.edges();
+            while (it.hasNext()) {
+                edges.add(it.next());
+            }
+            List<CS16Vertex<String>> vertices = new ArrayList<>();
+            Iterator<CS16Vertex<String>> vit = _graph.vertices();
+            while (vit.hasNext()) {
+                vertices.add(vit.next());
+            }
+            int op = random.nextInt(3);
+            if (op == 0 || edges.isEmpty()) {
+                CS16Vertex<String> a = vertices.get(random.nextInt(vertices.size()));
+                CS16Vertex<String> b = vertices.get(random.nextInt(vertices.size()));
+                if (a != b && !_graph.areAdjacent(a, b)) {
+                    dynamic.insertEdge(a, b, random.nextInt(50));
+                }
+            } else if (op == 1) {
+                dynamic.removeEdge(edges.get(random.nextInt(edges.size())));
+            } else {
+                dynamic.changeWeight(edges.get(random.nextInt(edges.size())), random.nextInt(50));
+            }
+
+            Collection<CS16Edge<String>> MSF = rebuild.genMinSpanForest(_graph, null);
+            assertThat(dynamic.getForest().size(), is(MSF.size()));
+            assertThat(dynamic.getTotalWeight(), is((long) totalWeight(MSF)));
+        }
+    }
+
+    //Test that a recorded Prim-Jarnik run replays every vertex and exactly the forest edges
+    @Test
+    public void primRecorderReplaysRunTest() {
+        fillRandom(new Random(3), 30, 90);
+        MyPrimJarnik<String> prim = new MyPrimJarnik<>();
+        StepRecorder<String> recorder = new StepRecorder<>(10000);
+        prim.setRecorder(recorder);
+        Collection<CS16Edge<String>> MSF = prim.genMinSpanForest(_graph, null);
+
+        List<CS16Vertex<String>> extracted = new ArrayList<>();
+        List<CS16Edge<String>> added = new ArrayList<>();
+        recorder.drain(new StepRecorder.Listener<String>() {
+            public void vertexExtracted(CS16Vertex<String> v) {
+                extracted.add(v);
+            }
+
+            public void edgeRelaxed(CS16Edge<String> e, int weight) {
+                assertThat(e.element(), is(weight));
+            }
+
+            public void edgeAdded(CS16Edge<String> e) {
+                added.add(e);
+            }
+        });
+        assertThat(extracted.size(), is(30));
+        assertThat(new HashSet<>(added), is(new HashSet<>(MSF)));
+        assertThat(added.size(), is(MSF.size()));
+        assertThat(recorder.size(), is(0));
+        assertThat(recorder.getDropped(), is(0L));
+    }
+
+    //Test that Kruskal and Boruvka record exactly the edges of the forest they return
+    @Test
+    public void edgeRecordersMatchForestTest() {
+        fillRandom(new Random(4), 40, 160);
+        MyKruskal<String> kruskal = new MyKruskal<>();
+        StepRecorder<String> kruskalSteps = new StepRecorder<>(1000);
+        kruskal.setRecorder(kruskalSteps);
+        assertRecordsForest(kruskalSteps, kruskal.genMinSpanForest(_graph, null));
+
+        MyBoruvka<String> boruvka = new MyBoruvka<>();
+        StepRecorder<String> boruvkaSteps = new StepRecorder<>(1000);
+        boruvka.setRecorder(boruvkaSteps);
+        assertRecordsForest(boruvkaSteps, boruvka.genMinSpanForest(_graph, null));
+    }
+
+    //Test that the streaming overloads hand out exactly the edges of the returned forest
+    @Test
+    public void streamingMatchesCollectionTest() {
+        fillRandom(new Random(5), 50, 200);
+        List<CS16Edge<String>> primStream = new ArrayList<>();
+        new MyPrimJarnik<String>().genMinSpanForest(_graph, null, primStream::add);
+        List<CS16Edge<String>> kruskalStream = new ArrayList<>();
+        new MyKruskal<String>().genMinSpanForest(_graph, null, kruskalStream::add);
+
+        Collection<CS16Edge<String>> primMSF = new MyPrimJarnik<String>().genMinSpanForest(_graph, null);
+        Collection<CS16Edge<String>> kruskalMSF = new MyKruskal<String>().genMinSpanForest(_graph, null);
+        assertThat(primStream.size(), is(primMSF.size()));
+        assertThat(new HashSet<>(primStream), is(new HashSet<>(primMSF)));
+        assertThat(kruskalStream.size(), is(kruskalMSF.size()));
+        assertThat(new HashSet<>(kruskalStream), is(new HashSet<>(kruskalMSF)));
+        assertThat(totalWeight(primStream), is(totalWeight(kruskalStream)));
+    }
+
+    //Test that MyBoruvka finds a forest of the same size and weight as MyKruskal on big random graphs,
+    //where its parallel rounds really split the work
+    @Test
+    public void boruvkaMatchesKruskalOnLargeGraphTest() {
+        Random random = new Random(16);
+        for (int run = 0; run < 3; run++) {
+            _graph = new AdjacencyListGraph<>(false);
+            fillRandom(random, 3000, 12000); //about 4 edges per vertex, so a few vertices are left out
+            Collection<CS16Edge<String>> boruvka = new MyBoruvka<String>().genMinSpanForest(_graph, null);
+            Collection<CS16Edge<String>> kruskal = new MyKruskal<String>().genMinSpanForest(_graph, null);
+            assertThat(boruvka.size(), is(kruskal.size()));
+            assertThat(totalWeight(boruvka), is(totalWeight(kruskal)));
+            DisjointSet joined = new DisjointSet(3000);
+            for (CS16Edge<String> e : boruvka) { //no edge closes a cycle
+                assertThat(joined.union(e.getVertexOne().getVertexNumber(), e.getVertexTwo().getVertexNumber()), is(true));
+            }
+        }
+    }
+
+    //drains the recorder and checks it held one EDGE_ADDED step per forest edge and nothing else
+    private static void assertRecordsForest(StepRecorder<String> recorder, Collection<CS16Edge<String>> MSF) {
+        assertThat(recorder.size(), is(MSF.size()));
+        for (int i = 0; i < recorder.size(); i++) {
+            assertThat(recorder.stepAt(i), is(StepRecorder.Step.EDGE_ADDED));
+        }
+        List<CS16Edge<String>> added = new ArrayList<>();
+        recorder.drain(new StepRecorder.Listener<String>() {
+            public void vertexExtracted(CS16Vertex<String> v) {
+            }
+
+            public void edgeRelaxed(CS16Edge<String> e, int weight) {
+            }
+
+            public void edgeAdded(CS16Edge<String> e) {
+                added.add(e);
+            }
+        });
+        assertThat(new HashSet<>(added), is(new HashSet<>(MSF)));
+    }
+
+    //inserts numVertices vertices and tries to add numTries random edges between them
+    private void fillRandom(Random random, int numVertices, int numTries) {
+        List<CS16Vertex<String>> vertices = new ArrayList<>();
+        for (int i = 0; i < numVertices; i++) {
+            vertices.add(_graph.insertVertex("V" + i));
+        }
+        for (int k = 0; k < numTries; k++) {
+            CS16Vertex<String> a = vertices.get(random.nextInt(vertices.size()));
+            CS16Vertex<String> b = vertices.get(random.nextInt(vertices.size()));
+            if (a != b && !_graph.areAdjacent(a, b)) {
+                _graph.insertEdge(a, b, random.nextInt(50));
+            }
+        }
+    }
+
+    //adds up the weights of the edges
+    private static int totalWeight(Collection<CS16Edge<String>> edges) {
+        int total = 0;
+        for (CS16Edge<String> e : edges) {
+            total += e.element();
+        }
+        return total;
+    }
+
+    @Before
+    public void setup() {
+        _graph = new AdjacencyMatrixGraph<>(false);
+    }
+}
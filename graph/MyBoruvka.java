@@ -0,0 +1,158 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * Boruvka's algorithm for the minimum spanning forest, run in parallel. Each
+ * round every component picks its cheapest edge to another component, and
+ * all of those edges join the forest at once. Every round at least halves the
+ * number of components, so there are at most log(|V|) rounds, and the work
+ * inside a round is independent per edge and per component.
+ *
+ * Both phases of a round run as parallel streams on the common ForkJoinPool:
+ * the cheapest edge of each component is kept in an AtomicLongArray (weight in
+ * the high 32 bits, edge position in the low 32 bits, lowered with
+ * compare-and-set), and the components are joined with a
+ * ConcurrentDisjointSet. Ties are broken by edge position, so every edge has
+ * a unique key and the picked edges can never close a cycle. After each
+ * round the edges inside a single component are dropped.
+ */
+public class MyBoruvka<V> implements MinSpanForest<V> {
+
+    // no cheapest edge found for a component yet
+    private static final long NONE = Long.MAX_VALUE;
+
+    //where the steps of a run are recorded, null for none
+    private StepRecorder<V> _recorder;
+
+    /**
+     * Sets the recorder that receives every edge of the forest, so the UI can
+     * replay the run later. The rounds run on many threads, so the edges are
+     * recorded once the forest is done. With null (the default) nothing is
+     * recorded.
+     *
+     * @param recorder the recorder to fill, or null
+     */
+    public void setRecorder(StepRecorder<V> recorder) {
+    	_recorder = recorder;
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g. An edge with a
+     * null element counts as weight 0.
+     *
+     * This algorithm does O(|E|log(|V|)) work in total, spread over the
+     * cores of the machine.
+     * @param g Your graph
+     * @param visualizer Not used.
+     * @return the edges of the MSF
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+
+    	//flatten the edges into arrays of endpoint numbers and weights, without self loops
+    	CS16Edge<V>[] edges = new CS16Edge[16];
+    	int[] from = new int[16];
+    	int[] to = new int[16];
+    	int[] weights = new int[16];
+    	int numEdges = 0;
+    	Iterator<CS16Edge<V>> it = g.edges();
+    	while(it.hasNext()) {
+    		CS16Edge<V> e = it.next();
+    		int a = e.getVertexOne().getVertexNumber();
+    		int b = e.getVertexTwo().getVertexNumber();
+    		if(a == b) { //a self loop never joins two components
+    			continue;
+    		}
+    		if(numEdges == edges.length) { //double the arrays
+    			edges = Arrays.copyOf(edges, numEdges * 2);
+    			from = Arrays.copyOf(from, numEdges * 2);
+    			to = Arrays.copyOf(to, numEdges * 2);
+    			weights = Arrays.copyOf(weights, numEdges * 2);
+    		}
+    		Integer element = e.element();
+    		edges[numEdges] = e;
+    		from[numEdges] = a;
+    		to[numEdges] = b;
+    		weights[numEdges] = (element == null) ? 0 : element;
+    		numEdges++;
+    	}
+
+    	//one component per vertex number
+    	int size = 0;
+    	Iterator<CS16Vertex<V>> vertices = g.vertices();
+    	while(vertices.hasNext()) {
+    		size = Math.max(size, vertices.next().getVertexNumber() + 1);
+    	}
+    	ConcurrentDisjointSet components = new ConcurrentDisjointSet(size);
+    	AtomicLongArray cheapest = new AtomicLongArray(size);
+    	boolean[] inForest = new boolean[numEdges];
+
+    	final int[] a = from;
+    	final int[] b = to;
+    	final int[] w = weights;
+    	int[] live = IntStream.range(0, numEdges).toArray(); //edges still between two components
+    	while(live.length > 0) {
+    		IntStream.range(0, size).parallel().forEach(c -> cheapest.set(c, NONE));
+
+    		//every component keeps the smallest key among its edges
+    		final int[] round = live;
+    		IntStream.range(0, round.length).parallel().forEach(k -> {
+    			int idx = round[k];
+    			int ra = components.find(a[idx]);
+    			int rb = components.find(b[idx]);
+    			long key = ((long) w[idx] << 32) | idx;
+    			lower(cheapest, ra, key);
+    			lower(cheapest, rb, key);
+    		});
+
+    		//join every component with the other end of its cheapest edge
+    		IntStream.range(0, size).parallel().forEach(c -> {
+    			long key = cheapest.get(c);
+    			if(key != NONE) {
+    				int idx = (int) key; //low 32 bits are the position
+    				if(components.union(a[idx], b[idx])) {
+    					inForest[idx] = true; //only the thread that joined them writes this
+    				}
+    			}
+    		});
+
+    		//drop the edges that now sit inside one component
+    		live = Arrays.stream(round).parallel().filter(idx -> !components.sameSet(a[idx], b[idx])).toArray();
+    	}
+
+    	Collection<CS16Edge<V>> MSF = new ArrayList<>();
+    	StepRecorder<V> recorder = _recorder; //null when nobody watches
+    	for(int idx = 0; idx < numEdges; idx++) {
+    		if(inForest[idx]) {
+    			MSF.add(edges[idx]);
+    			if(recorder != null) {
+    				recorder.edgeAdded(edges[idx]);
+    			}
+    		}
+    	}
+    	return MSF;
+    }
+
+    /**
+     * Lowers slot c of cheapest to key, unless it already holds a smaller key.
+     */
+    private static void lower(AtomicLongArray cheapest, int c, long key) {
+    	long current = cheapest.get(c);
+    	while(key < current && !cheapest.compareAndSet(c, current, key)) {
+    		current = cheapest.get(c);
+    	}
+    }
+}
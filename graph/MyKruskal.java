@@ -0,0 +1,110 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * Kruskal's algorithm for the minimum spanning forest. Every edge is tried
+ * from lightest to heaviest and kept if it joins two different trees, which a
+ * DisjointSet over vertex numbers answers in close to constant time. Unlike
+ * Prim-Jarnik it needs no special handling for disconnected graphs: every
+ * component simply ends up as its own tree.
+ *
+ * The edges are sorted as primitive longs, the weight in the high 32 bits
+ * and the edge's position in the low 32 bits, with Arrays.parallelSort, so
+ * the sort spreads over all cores and no Comparator or boxing is involved.
+ */
+public class MyKruskal<V> implements MinSpanForest<V> {
+
+    //where the steps of a run are recorded, null for none
+    private StepRecorder<V> _recorder;
+
+    /**
+     * Sets the recorder that receives every edge added to the forest, so the
+     * UI can replay the run later. With null (the default) nothing is
+     * recorded.
+     *
+     * @param recorder the recorder to fill, or null
+     */
+    public void setRecorder(StepRecorder<V> recorder) {
+    	_recorder = recorder;
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest of g. An edge with a
+     * null element counts as weight 0.
+     *
+     * This algorithm runs in O(|E|log(|E|) + |V|) time.
+     * @param g Your graph
+     * @param visualizer Not used.
+     * @return the edges of the MSF
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	Collection<CS16Edge<V>> MSF = new ArrayList<>();
+    	this.genMinSpanForest(g, visualizer, MSF::add);
+    	return MSF;
+    }
+
+    /**
+     * Runs Kruskal on g and hands every edge of the forest to sink as soon as
+     * it is accepted, lightest first, instead of collecting them.
+     *
+     * This algorithm runs in O(|E|log(|E|) + |V|) time.
+     * @param g Your graph
+     * @param visualizer Not used.
+     * @param sink receives each MSF edge once
+     */
+    @SuppressWarnings("unchecked")
+    public void genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer, Consumer<? super CS16Edge<V>> sink) {
+    	
+    	//collect the edges and pack each one's weight and position into a long
+    	CS16Edge<V>[] edges = new CS16Edge[16];
+    	long[] keys = new long[16];
+    	int numEdges = 0;
+    	Iterator<CS16Edge<V>> it = g.edges();
+    	while(it.hasNext()) {
+    		CS16Edge<V> e = it.next();
+    		if(numEdges == edges.length) { //double the arrays
+    			edges = Arrays.copyOf(edges, numEdges * 2);
+    			keys = Arrays.copyOf(keys, numEdges * 2);
+    		}
+    		Integer element = e.element();
+    		int weight = (element == null) ? 0 : element;
+    		keys[numEdges] = ((long) weight << 32) | numEdges; //sorts by weight, then position
+    		edges[numEdges] = e;
+    		numEdges++;
+    	}
+    	Arrays.parallelSort(keys, 0, numEdges);
+    	
+    	//one set per vertex number
+    	int size = 0;
+    	Iterator<CS16Vertex<V>> vertices = g.vertices();
+    	while(vertices.hasNext()) {
+    		size = Math.max(size, vertices.next().getVertexNumber() + 1);
+    	}
+    	DisjointSet trees = new DisjointSet(size);
+    	
+    	StepRecorder<V> recorder = _recorder; //null when nobody watches
+    	int numTrees = g.getNumVertices();
+    	for(int k = 0; k < numEdges && numTrees > 1; k++) { //stop once everything is one tree
+    		CS16Edge<V> e = edges[(int) keys[k]]; //low 32 bits are the position
+    		if(trees.union(e.getVertexOne().getVertexNumber(), e.getVertexTwo().getVertexNumber())) {
+    			sink.accept(e); //joined two trees
+    			if(recorder != null) {
+    				recorder.edgeAdded(e);
+    			}
+    			numTrees--;
+    		}
+    	}
+    }
+}
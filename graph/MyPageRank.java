@@ -1,13 +1,14 @@
 package graph;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
 
 import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
@@ -25,160 +26,305 @@ import support.graph.PageRank;
  *
  */
 public class MyPageRank<V> implements PageRank<V> {
-	private Graph<V> _g;
-	private List<CS16Vertex<V>> _vertices;
-	private Map<CS16Vertex<V>, Double> _vertsToRanks;
 	private static final double _dampingFactor = 0.85; //DO NOT CHANGE
-	private static final int _maxIterations = 100;
+	private static final int _maxIterations = 100; //max rounds, each round counted once
 	private static final double _error = 0.01; //DO NOT CHANGE
+	// work chunks per core in PARALLEL and ASYNC mode, so a slow chunk does not hold up a whole round
+	private static final int CHUNKS_PER_CORE = 4;
+
+	/**
+	 * How calcPageRank runs its rounds. SEQUENTIAL updates every page on the
+	 * calling thread. PARALLEL splits the pages into chunks with about the
+	 * same number of incoming links each and updates the chunks at the same
+	 * time on the common ForkJoinPool; since every new rank only depends on
+	 * the previous round's ranks, both give the same ranks.
+	 *
+	 * GAUSS_SEIDEL keeps a single rank array and updates it in place, so a
+	 * page already sees the new ranks of the pages before it in the same
+	 * sweep. ASYNC does the same on the chunks of PARALLEL at once, each
+	 * thread reading whatever ranks the others have written so far. Both
+	 * reach the same ranks in fewer sweeps, though since they stop at the
+	 * same error the ranks they return can differ by about that much.
+	 *
+	 * ASYNC is not deterministic: which ranks a thread sees depends on the
+	 * timing of the other threads, so two runs can differ slightly (always
+	 * within about the error). Its ranks are held as the bits of each double
+	 * in an AtomicLongArray and read and written with opaque accesses, so a
+	 * thread never sees half of a rank another thread is writing.
+	 */
+	public enum Mode {
+		SEQUENTIAL, PARALLEL, GAUSS_SEIDEL, ASYNC
+	}
+
+	private Mode _mode; //how the rounds are run
+
+	public MyPageRank() {
+		_mode = Mode.SEQUENTIAL;
+	}
 
 	/**
-	 * TODO: Feel free to add in anything else necessary to store the information
-	 * needed to calculate the rank. Maybe make something to keep track of sinks,
-	 * your ranks, and your outgoing edges?
+	 * Sets how calcPageRank runs its rounds.
+	 *
+	 * @param mode the mode to use
 	 */
-	
-	private int[] _outgoingEdges; //array out each vertex's outgoing edges
-	private double[] _currentRanks; //array out each vertex's current ranks
-	private double[] _previousRanks; //array out each vertex's previous ranks
-	private int _numberOfPages; //int to store number of total pages/vertices
-	private List<Integer> _sinks; //arrayList for all the sinks
-	private boolean _converged; //boolean to see if calculations have converged
-	private boolean _maxIterationsBool; //boolean to see if reached max 
-	private int _maxInterationsNum; // boolean to 
+	public void setMode(Mode mode) {
+		_mode = mode;
+	}
 
 	/**
-	 * The main method that does the calculations! You'll want to call the methods
-	 * that initialize your variables here. You'll also want to decide on a
-	 * type of loop - for loop, do while, or while loop - for your calculations.
+	 * The main method that does the calculations! The graph is only read,
+	 * never changed, and everything the calculation needs lives in local
+	 * variables, so the same graph (and the same MyPageRank) can be ranked
+	 * by many threads at once, and ranked again later with the same result.
+	 *
+	 * Sinks and the blacklist are handled in the rank vector instead of by
+	 * editing edges. A sink acts as if it linked to every page, so each round
+	 * the rank held by sinks is spread evenly over all pages. A blacklisted
+	 * page acts as if it had no incoming links, so it only gets the
+	 * (1-DF)/N share and the links (and sink share) pointing at it are
+	 * dropped.
+	 *
+	 * The graph is read once into a GraphSnapshot, which gives every page a
+	 * dense index and lists the sources of its incoming links in a flat int
+	 * array. Each round is then a pass over primitive arrays: every page's
+	 * rank divided by its out-degree is computed once (with a precomputed
+	 * inverse out-degree), and each page adds up those values for its
+	 * sources. A round takes O(|V| + |E|) time and allocates nothing.
+	 *
+	 * The rounds stop once no page's rank moved by more than the error, or
+	 * after at most 100 rounds (_maxIterations). Earlier versions counted
+	 * every round twice and so gave up after 50; a graph that converges
+	 * slowly can now take up to twice as many rounds.
 	 *
 	 * @return A Map of every Vertex to its corresponding rank
 	 *
 	 */
 	@Override
 	public Map<CS16Vertex<V>, Double> calcPageRank(Graph<V> g) {
+		return this.calcPageRank(g, _error, null);
+	}
+
+	/**
+	 * calcPageRank with a given error instead of the fixed one, so the tests
+	 * can run the modes to a tight error and compare how many rounds each
+	 * took.
+	 *
+	 * @param error the biggest change of a round at which the rounds stop
+	 * @param roundsUsed if not null, its first slot is set to the number of rounds run
+	 * @return A Map of every Vertex to its corresponding rank
+	 */
+	Map<CS16Vertex<V>, Double> calcPageRank(Graph<V> g, double error, int[] roundsUsed) {
 				
-		//Instance variables set here
-		_g = g;
-		_vertices = new ArrayList<CS16Vertex<V>>();
-		_numberOfPages = 0;
-		_vertsToRanks = new HashMap<CS16Vertex<V>, Double>();
-		_sinks = new ArrayList<Integer>();
-		_converged = false; //boolean to check if all ranks have little error 
-		_maxIterationsBool = false; //boolean to check if reached max iterations
-		_maxInterationsNum = 0; //to keep track of total iterations
-		
-		//adding all vertices to arrayList and calculating total pages
-		Iterator<CS16Vertex<V>> iterator = g.vertices();
-    	while(iterator.hasNext()) {
-    		CS16Vertex<V> next = iterator.next();
-    		_vertices.add(next); //add each vertex to vertices arrayList
-    		_numberOfPages++; //increment num of Pages 
-    	}
-    	
-    	//set the sizes of all arrays 
-    	_outgoingEdges = new int[_numberOfPages]; //stores all outgoing edges of each vertex
-    	_currentRanks = new double[_numberOfPages]; //stores current page ranks of each vertex 
-    	_previousRanks = new double[_numberOfPages]; //stores previous page ranks of each vertex, updated in loop
+		//dense indices and incoming links of all pages
+		GraphSnapshot<V> snapshot = GraphSnapshot.of(g);
+		Kernel kernel = new Kernel(snapshot.inOffsets(), snapshot.inSources());
+		int numberOfPages = snapshot.numVertices(); //number of total pages/vertices
+    	double[] currentRanks = new double[numberOfPages]; //stores current page ranks of each vertex 
+    	boolean inPlace = _mode == Mode.GAUSS_SEIDEL || _mode == Mode.ASYNC; //one array updated in place
+    	double[] previousRanks = inPlace ? null : new double[numberOfPages]; //stores previous page ranks of each vertex, updated in loop
+    	AtomicLongArray sharedRanks = null; //bits of the ranks in ASYNC mode, shared by all threads
     	
+    	for(int i = 0; i < numberOfPages; i++) {
+    		CS16Vertex<V> page = snapshot.vertex(i);
+    		int outgoing = g.numOutgoingEdges(page); //only works on a directed graph
+    		kernel.sinks[i] = outgoing == 0;
+    		kernel.inverseOutgoing[i] = kernel.sinks[i] ? 0 : 1.0 / outgoing;
+    		kernel.blacklisted[i] = PageRank.blacklist.contains(page.getVertexName());
+    		//set all ranks to 1/N(number of pages) 
+    		currentRanks[i] = (double) 1/numberOfPages;
+    	}
     	
-    	for(int i = 0; i < _numberOfPages; i++) {
-    		_outgoingEdges[i] = g.numOutgoingEdges(_vertices.get(i)); //store outgoing edges of a vertex in array
-    		if(_outgoingEdges[i] == 0) { //if a vertex has no outgoing Edges
-    			_sinks.add(i); //add to the sinks array
+    	//page ranges for PARALLEL and ASYNC mode, balanced by incoming links
+    	int[] chunks = (_mode == Mode.PARALLEL || _mode == Mode.ASYNC) ? kernel.balancedChunks(Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE) : null;
+    	if(_mode == Mode.ASYNC) {
+    		sharedRanks = new AtomicLongArray(numberOfPages);
+    		for(int i = 0; i < numberOfPages; i++) {
+    			sharedRanks.setPlain(i, Double.doubleToRawLongBits(currentRanks[i]));
     		}
-    		//set all ranks to 1/N(number of pages) 
-    		_currentRanks[i] = (double) 1/_numberOfPages;
-    		_previousRanks[i] = (double) 1/_numberOfPages;
     	}
-   
-    	//handles all the sinks in one helper method call
-    	this.handleSinks(); 
     	
-    	//handles the blacklist of pages
-    	this.removeBlackList(); 
-    
     	//PageRank only runs when the number of iterations has not gone over the max and
-    	//the difference between all values in arrays previous and currentRanks is less 
-    	//than or equal to the error 
-    	while(!_converged && !_maxIterationsBool) {
+    	//the difference between all values in arrays previous and currentRanks is greater 
+    	//than the error 
+    	boolean converged = false; //boolean to check if all ranks have little error
+    	int iterations = 0; //to keep track of total iterations
+    	while(!converged && iterations < _maxIterations) {
     	
-    		//updating both current and previous arrays
-    		_previousRanks = _currentRanks.clone(); //close currentRanks in preivous ranks
-    		for(int i = 0; i < _numberOfPages; i++) {
-    			_currentRanks[i] = 0; //set all currentRanks to 0
+    		double change; //biggest change of any page's rank this round
+    		if(inPlace) {
+    			change = (sharedRanks == null) ? kernel.sweep(currentRanks, kernel.sinkRank(currentRanks, 0, numberOfPages), 0, numberOfPages)
+    					: kernel.asyncSweep(sharedRanks, chunks);
+    		}
+    		else {
+    			//the old current ranks become the previous ranks, and the old array is reused
+    			double[] swap = previousRanks;
+    			previousRanks = currentRanks;
+    			currentRanks = swap;
+    			
+    			change = (chunks == null) ? kernel.round(previousRanks, currentRanks)
+    					: kernel.parallelRound(previousRanks, currentRanks, chunks);
     		}
-    		
-    		//iterate through all pages
-        	for(int i = 0; i < _numberOfPages; i++) {
-        	
-        		Iterator<CS16Edge<V>> incomingEdges = g.incomingEdges(_vertices.get(i)); //iterator of all incomingEdges
-        		
-        		while(incomingEdges.hasNext()) { //iterate through incoming Edges
-        			        			
-	        		CS16Edge<V> edge = incomingEdges.next(); //store opposite edge
-	        		CS16Vertex<V> opposite = g.opposite(_vertices.get(i), edge); //store opposite vertex of incomingEdge
-	        		
-	        		int oppositeIndex = _vertices.indexOf(opposite); //store index of opposite vertex
-	        		
-	        		//calculation for current rank, using previous rank and outgoingEdges a the oppositeIndex
-	           		_currentRanks[i] += (_dampingFactor * (_previousRanks[oppositeIndex]/_outgoingEdges[oppositeIndex]));
-	           	}
-        		
-        		_currentRanks[i] += dampingCalculation(); //apply damping calculation, called in the helper method
-        	}
         	
-        	_maxInterationsNum++; //increment maxIterationsNum
-    		
-        	if(_maxIterations <= _maxInterationsNum++) { //if incrementing maxIterationsNum is greater than man
-        		_maxIterationsBool = true; //set the boolean to true for next iteration
-        	}
-        		
-        	_converged = checkConvergence(); //update converged by calling helper method
+        	iterations++; //increment iterations
+        	converged = change <= error; //every page moved by at most the error
         }
-    	
+    	if(sharedRanks != null) { //the sweeps are joined, plain reads see every write
+    		for(int i = 0; i < numberOfPages; i++) {
+    			currentRanks[i] = Double.longBitsToDouble(sharedRanks.getPlain(i));
+    		}
+    	}
+    	if(roundsUsed != null) {
+    		roundsUsed[0] = iterations;
+    	}
     	
     	//Getting each vertex and rank and storing into HashMap
-    	for(int i = 0; i < _currentRanks.length; i++) { //loop through all vertices
-    		_vertsToRanks.put(_vertices.get(i), _currentRanks[i]); //put each vertex and rank into the HasMa
+    	Map<CS16Vertex<V>, Double> vertsToRanks = new HashMap<CS16Vertex<V>, Double>();
+    	for(int i = 0; i < currentRanks.length; i++) { //loop through all vertices
+    		vertsToRanks.put(snapshot.vertex(i), currentRanks[i]); //put each vertex and rank into the HasMap
     	}
     	
-		return _vertsToRanks; //return HashMap
+		return vertsToRanks; //return HashMap
 	}
 
 	/**
-	 * Method used to account for sink pages (those with no outgoing
-	 * edges). There are multiple ways you can implement this, check
-	 * the lecture and help slides!
-	 * 
-	 * Handles sinks by adding outgoing edges to each sink 
+	 * Brings the ranks of g up to date after a few links were inserted into
+	 * and removed from it, starting from the ranks calcPageRank (or this
+	 * method) returned before the edits, instead of from 1/N. The edits must
+	 * already be made to g. The old ranks are left unchanged. A link that is
+	 * in both inserted and removed was added and taken away again, so it is
+	 * left out.
+	 *
+	 * The old ranks were (close to) a fixed point of the old graph, so only
+	 * the sources of the edited links are off: each one now sends its rank
+	 * along a different set of links. The difference is turned into residual
+	 * rank at the pages it reaches, and residuals are pushed along outgoing
+	 * links (a residual-push scheme) until every page's residual is at most
+	 * (1-DF) times the error divided by N, which keeps the ranks within a
+	 * small multiple of the error divided by N of a full run.
+	 *
+	 * Rank pushed into a sink would go to every page, so it is never pushed.
+	 * It is added up into one uniform residual, and its effect is worked out
+	 * once at the end: a uniform residual spreads through the graph just like
+	 * the (1-DF)/N every page gets, so its effect is a multiple of the new
+	 * ranks themselves. Only the blacklisted pages get the (1-DF)/N share but
+	 * no uniform residual, so their own effect is pushed out from them (to a
+	 * tolerance relative to the uniform residual, so it rarely goes far) and
+	 * taken off. All ranks are then scaled once, in the same pass that copies
+	 * them into the new map. If the uniform residual is so big that the
+	 * scale would not be positive, the ranks are calculated from scratch.
+	 *
+	 * Like the Kernel, the push works on dense arrays (indexed by vertex
+	 * number) instead of maps, and walks the outgoing edges of a page with
+	 * the graph's own cursor, which on an AdjacencyMatrixGraph skips empty
+	 * cells a word at a time. It does not build a GraphSnapshot, which alone
+	 * costs most of a full run. So apart from one O(|V|) pass to read the
+	 * old ranks and one to write the new ones, the work depends on how far
+	 * the edits reach, not on the size of the graph, sinks or not.
+	 *
+	 * If g has a page the old ranks do not, 1/N changed for every page, so
+	 * the ranks are calculated from scratch with calcPageRank.
+	 *
+	 * @param previousRanks the ranks of every page before the edits
+	 * @param inserted the links inserted into g since then
+	 * @param removed the links removed from g since then
+	 * @return A Map of every Vertex to its corresponding rank
 	 */
-	private void handleSinks() {
-
-		for(int sink : _sinks) { //loop through all sinks
-			for(int i = 0; i < _numberOfPages; i++) { //loop through number of pages
-				//insert new edge on graph at location in sink and the vertex with weight 0 
-				_g.insertEdge(_vertices.get(sink), _vertices.get(i), 0);
+	public Map<CS16Vertex<V>, Double> updatePageRank(Graph<V> g, Map<CS16Vertex<V>, Double> previousRanks,
+			Collection<CS16Edge<V>> inserted, Collection<CS16Edge<V>> removed) {
+		
+		int numberOfPages = g.getNumVertices(); //number of total pages/vertices
+		if(numberOfPages != previousRanks.size()) { //every rank changes, start over
+			return this.calcPageRank(g);
+		}
+		Push<V> push = new Push<V>(g, _error * dampingCalculation(numberOfPages));
+		double[] oldRanks = new double[push.size()]; //old rank of each vertex number
+		Iterator<CS16Vertex<V>> pages = g.vertices();
+		while(pages.hasNext()) {
+			CS16Vertex<V> page = pages.next();
+			Double rank = previousRanks.get(page);
+			if(rank == null) { //a page was swapped for another, start over
+				return this.calcPageRank(g);
 			}
-			_outgoingEdges[sink] = _g.getNumVertices();  //updating sinks outgoing edges 
+			oldRanks[page.getVertexNumber()] = rank;
 		}
-
-	}
-	
-	/**
-	 * Updates the converged variable to see if the error between the previous and current ranks arrays
-	 * have less than the error. 
-	 * 
-	 * @return boolean if convergence variable needs to change
-	 */
-	private boolean checkConvergence() {
-		for(int i = 0; i < _currentRanks.length; i++) //loop through array
-		{
-			if(Math.abs(_previousRanks[i]- _currentRanks[i]) > _error) { //if difference between two are greater than error
-				return false; //return false
+		
+		//links that really changed, without the ones both inserted and removed
+		Set<CS16Edge<V>> insertedSet = new HashSet<CS16Edge<V>>(inserted);
+		Set<CS16Edge<V>> removedSet = new HashSet<CS16Edge<V>>(removed);
+		Set<CS16Edge<V>> undone = new HashSet<CS16Edge<V>>(insertedSet);
+		undone.retainAll(removedSet);
+		insertedSet.removeAll(undone);
+		removedSet.removeAll(undone);
+		
+		//links out of each edited source: +1 for an inserted one, -1 for a removed one
+		Map<CS16Vertex<V>, Integer> edits = new HashMap<CS16Vertex<V>, Integer>();
+		for(CS16Edge<V> e : insertedSet) {
+			edits.merge(e.getVertexOne(), 1, Integer::sum);
+		}
+		for(CS16Edge<V> e : removedSet) {
+			edits.merge(e.getVertexOne(), -1, Integer::sum);
+		}
+		
+		//residual from every edited source sending its rank along its new links instead of its old ones
+		double[] residuals = new double[push.size()]; //rank not yet pushed, per vertex number
+		double[] changes = new double[push.size()]; //rank pushed so far, per vertex number
+		double sinkResidual = 0; //uniform residual every page gets from sinks, never pushed
+		for(Map.Entry<CS16Vertex<V>, Integer> edit : edits.entrySet()) {
+			CS16Vertex<V> source = edit.getKey();
+			double rank = oldRanks[source.getVertexNumber()];
+			int newOutgoing = g.numOutgoingEdges(source); //only works on a directed graph
+			int oldOutgoing = newOutgoing - edit.getValue();
+			Iterator<CS16Edge<V>> it = g.outgoingEdges(source);
+			while(it.hasNext()) {
+				CS16Edge<V> e = it.next();
+				double change = _dampingFactor * rank / newOutgoing;
+				if(!insertedSet.contains(e)) { //the link was there before too
+					change -= _dampingFactor * rank / oldOutgoing;
+				}
+				push.add(residuals, e.getVertexTwo().getVertexNumber(), change);
+			}
+			for(CS16Edge<V> e : removedSet) {
+				if(e.getVertexOne() == source) {
+					push.add(residuals, e.getVertexTwo().getVertexNumber(), -_dampingFactor * rank / oldOutgoing);
+				}
+			}
+			if((newOutgoing == 0) != (oldOutgoing == 0)) { //the source became a sink or stopped being one
+				sinkResidual += (newOutgoing == 0 ? 1 : -1) * _dampingFactor * rank / numberOfPages;
+			}
+		}
+		sinkResidual += push.run(residuals, changes, push.tolerance);
+		
+		//with s the uniform residual and c = (1-DF)/N, the new ranks are
+		//(old ranks + changes - s/(1+t) * blacklistChanges) / (1 - s/(c(1+t))),
+		//where blacklistChanges is one unit of rank pushed out of every
+		//blacklisted page and t is the uniform residual that push leaves
+		double[] blacklistChanges = null;
+		double blacklistWeight = 0; //s/(1+t)
+		double scale = 1;
+		if(sinkResidual != 0) {
+			residuals = new double[push.size()];
+			blacklistChanges = new double[push.size()];
+			double blacklistSinkResidual = push.runFromBlacklist(residuals, blacklistChanges, push.tolerance / Math.abs(sinkResidual));
+			blacklistWeight = sinkResidual / (1 + blacklistSinkResidual);
+			double left = 1 - blacklistWeight / dampingCalculation(numberOfPages);
+			if(!(left > 0)) { //more rank moved through sinks than the correction can take
+				return this.calcPageRank(g);
+			}
+			scale = 1 / left;
+		}
+		
+		Map<CS16Vertex<V>, Double> ranks = new HashMap<CS16Vertex<V>, Double>(); //the old ranks, brought up to date
+		for(int i = 0; i < push.size(); i++) {
+			CS16Vertex<V> page = push.vertex(i);
+			if(page != null) {
+				double rank = oldRanks[i] + changes[i];
+				if(blacklistChanges != null) {
+					rank -= blacklistWeight * blacklistChanges[i];
+				}
+				ranks.put(page, rank * scale);
 			}
 		}
-		return true; // if not, return true
+		return ranks;
 	}
 
 	/**
@@ -186,28 +332,386 @@ public class MyPageRank<V> implements PageRank<V> {
 	 * 
 	 * @return a double that does the first part of the damping calculation
 	 */
-	private double dampingCalculation() {
-		return (1 - _dampingFactor) / _numberOfPages;  //return double (1-DF)/V
+	private static double dampingCalculation(int numberOfPages) {
+		return (1 - _dampingFactor) / numberOfPages;  //return double (1-DF)/V
 	}
-	
+
 	/**
-	 * Implementing removeBlackList by removing incoming edges
-	 * of pages that are on the blacklist
+	 * The residual push of updatePageRank on dense arrays indexed by vertex
+	 * number. Pages waiting to push are kept in a ring of vertex numbers,
+	 * each page at most once, so nothing is boxed or hashed while pushing.
+	 * The first push of a page reads its outgoing links into an int array
+	 * of target numbers, so a page pushed again (most are) costs one loop
+	 * over that array: the CSR rows of the Kernel, built only for the pages
+	 * the push reaches.
 	 */
-	private void removeBlackList() {
-		
-		for(int i = 0; i < _vertices.size(); i++) { //loop through all vertices
+	private static class Push<V> {
+		private final Graph<V> g;
+		private final CS16Vertex<V>[] vertices; //vertex of each number, null for an unused number
+		private final boolean[] blacklisted; //pages that get no residual
+		private final int[][] targets; //numbers of the pages each page links to, read on its first push
+		private final int[] queue; //ring of the pages whose residual is over the tolerance
+		private final boolean[] queued;
+		private int head; //next page to push
+		private int count; //pages in the ring
+		private final double tolerance; //residual a page may keep without pushing it
+		private final int numberOfPages;
 
-			if(PageRank.blacklist.contains(_vertices.get(i).getVertexName())) { //see if page is in blacklist
-				Iterator<CS16Edge<V>> incomingEdges = _g.incomingEdges(_vertices.get(i)); //iterator of all incomingEdges
-				
-				while(incomingEdges.hasNext()) { //iterate through incoming Edges
-	        		CS16Edge<V> edge = incomingEdges.next(); //store opposite edge
-	        		_g.removeEdge(edge); //remove the incoming edge from graph 
+		@SuppressWarnings("unchecked")
+		private Push(Graph<V> g, double tolerance) {
+			this.g = g;
+			this.tolerance = tolerance;
+			this.numberOfPages = g.getNumVertices();
+			CS16Vertex<V>[] byNumber = new CS16Vertex[Math.max(numberOfPages, 1)];
+			Iterator<CS16Vertex<V>> it = g.vertices();
+			while(it.hasNext()) {
+				CS16Vertex<V> page = it.next();
+				int number = page.getVertexNumber();
+				if(number >= byNumber.length) { //numbers can run past N after removals
+					byNumber = Arrays.copyOf(byNumber, Math.max(number + 1, byNumber.length * 2));
+				}
+				byNumber[number] = page;
+			}
+			this.vertices = byNumber;
+			this.blacklisted = new boolean[byNumber.length];
+			for(int i = 0; i < byNumber.length; i++) {
+				blacklisted[i] = byNumber[i] != null && PageRank.blacklist.contains(byNumber[i].getVertexName());
+			}
+			this.targets = new int[byNumber.length][];
+			this.queue = new int[byNumber.length];
+			this.queued = new boolean[byNumber.length];
+		}
+
+		/**
+		 * Returns one more than the highest vertex number.
+		 */
+		private int size() {
+			return vertices.length;
+		}
+
+		/**
+		 * Returns the vertex with number i, or null if there is none.
+		 */
+		private CS16Vertex<V> vertex(int i) {
+			return vertices[i];
+		}
+
+		/**
+		 * Adds residual rank to page i and queues it once its residual is
+		 * over the tolerance. A blacklisted page gets no rank from links or
+		 * sinks, so it never gets a residual either.
+		 */
+		private void add(double[] residuals, int i, double residual) {
+			this.add(residuals, i, residual, tolerance);
+		}
+
+		private void add(double[] residuals, int i, double residual, double tolerance) {
+			if(blacklisted[i]) {
+				return;
+			}
+			residuals[i] += residual;
+			if(!queued[i] && Math.abs(residuals[i]) > tolerance) {
+				this.enqueue(i);
+			}
+		}
+
+		private void enqueue(int i) {
+			queued[i] = true;
+			queue[(head + count) % queue.length] = i;
+			count++;
+		}
+
+		/**
+		 * Pushes residuals along outgoing links until no page's residual is
+		 * over the tolerance, adding what each page keeps to changes. Rank
+		 * pushed into a sink is not sent on; the residuals left over are
+		 * added to changes without being pushed. The residuals end up zero.
+		 *
+		 * @return the uniform residual every page would get from the sinks
+		 */
+		private double run(double[] residuals, double[] changes, double tolerance) {
+			double sinkResidual = 0;
+			while(count > 0) {
+				int i = queue[head];
+				head = (head + 1) % queue.length;
+				count--;
+				queued[i] = false;
+				double residual = residuals[i];
+				residuals[i] = 0;
+				changes[i] += residual;
+				int[] out = this.targets(i);
+				if(out.length == 0) { //a sink hands its residual to every page
+					sinkResidual += _dampingFactor * residual / numberOfPages;
+					continue;
+				}
+				double share = _dampingFactor * residual / out.length;
+				for(int target : out) {
+					this.add(residuals, target, share, tolerance);
+				}
+			}
+			
+			//the small residuals left are added without being pushed further
+			for(int i = 0; i < residuals.length; i++) {
+				changes[i] += residuals[i];
+				residuals[i] = 0;
+			}
+			return sinkResidual;
+		}
+
+		/**
+		 * Returns the numbers of the pages page i links to, reading them from
+		 * the graph the first time.
+		 */
+		private int[] targets(int i) {
+			int[] out = targets[i];
+			if(out == null) {
+				CS16Vertex<V> page = vertices[i];
+				out = new int[g.numOutgoingEdges(page)]; //only works on a directed graph
+				Iterator<CS16Edge<V>> it = g.outgoingEdges(page);
+				for(int k = 0; k < out.length; k++) {
+					out[k] = it.next().getVertexTwo().getVertexNumber();
 				}
+				targets[i] = out;
 			}
+			return out;
+		}
+
+		/**
+		 * Pushes one unit of rank out of every blacklisted page, which add
+		 * would refuse, and returns the uniform residual it leaves.
+		 */
+		private double runFromBlacklist(double[] residuals, double[] changes, double tolerance) {
+			for(int i = 0; i < vertices.length; i++) {
+				if(blacklisted[i]) {
+					residuals[i] = 1;
+					this.enqueue(i);
+				}
+			}
+			return this.run(residuals, changes, tolerance);
 		}
 	}
 
+	/**
+	 * The arrays of one ranking and the update of one round, over any range
+	 * of pages, so the same code runs on one thread or on many chunks.
+	 */
+	private static class Kernel {
+		private final int[] inOffsets; //incoming links of page i are inSources[inOffsets[i]] to inSources[inOffsets[i+1]-1]
+		private final int[] inSources;
+		private final double[] inverseOutgoing; //1/out-degree of each page, 0 for a sink
+		private final boolean[] sinks; //pages without outgoing links
+		private final boolean[] blacklisted; //pages that get no incoming rank
+		private final double[] shares; //rank each page sends along every outgoing link this round
+		private final double teleport; //(1-DF)/N
+
+		private Kernel(int[] inOffsets, int[] inSources) {
+			int numberOfPages = inOffsets.length - 1;
+			this.inOffsets = inOffsets;
+			this.inSources = inSources;
+			this.inverseOutgoing = new double[numberOfPages];
+			this.sinks = new boolean[numberOfPages];
+			this.blacklisted = new boolean[numberOfPages];
+			this.shares = new double[numberOfPages];
+			this.teleport = dampingCalculation(numberOfPages);
+		}
+
+		/**
+		 * Runs one round on the calling thread.
+		 *
+		 * @return the biggest change of any page's rank
+		 */
+		private double round(double[] previousRanks, double[] currentRanks) {
+			int n = shares.length;
+			double sinkShare = this.sinkShare(this.sinkRank(previousRanks, 0, n));
+			this.computeShares(previousRanks, 0, n);
+			return this.update(previousRanks, currentRanks, sinkShare, 0, n);
+		}
+
+		/**
+		 * Runs one round with every chunk of pages on its own task. The sink
+		 * rank and the biggest change are parallel reductions over the chunks.
+		 *
+		 * @return the biggest change of any page's rank
+		 */
+		private double parallelRound(double[] previousRanks, double[] currentRanks, int[] chunks) {
+			int numChunks = chunks.length - 1;
+			double sinkShare = this.sinkShare(IntStream.range(0, numChunks).parallel()
+					.mapToDouble(c -> {
+						this.computeShares(previousRanks, chunks[c], chunks[c + 1]);
+						return this.sinkRank(previousRanks, chunks[c], chunks[c + 1]);
+					}).sum());
+			//all shares are written before this second pass reads them
+			return IntStream.range(0, numChunks).parallel()
+					.mapToDouble(c -> this.update(previousRanks, currentRanks, sinkShare, chunks[c], chunks[c + 1]))
+					.max().orElse(0);
+		}
+
+		/**
+		 * Updates the ranks of the chunks at the same time, in place. The
+		 * threads read each other's ranks with opaque accesses and no other
+		 * ordering, so a page may see the new or the old rank of a page in
+		 * another chunk (but never a torn one); either way the ranks move
+		 * toward the same fixed point. Every chunk starts from the sinks'
+		 * total rank at the beginning of the sweep.
+		 *
+		 * @param ranks the bits of every page's rank
+		 * @return the biggest change of any page's rank
+		 */
+		private double asyncSweep(AtomicLongArray ranks, int[] chunks) {
+			int numChunks = chunks.length - 1;
+			double sinkRank = IntStream.range(0, numChunks).parallel()
+					.mapToDouble(c -> {
+						double total = 0;
+						for(int i = chunks[c]; i < chunks[c + 1]; i++) {
+							if(sinks[i]) {
+								total += Double.longBitsToDouble(ranks.getOpaque(i));
+							}
+						}
+						return total;
+					}).sum();
+			return IntStream.range(0, numChunks).parallel()
+					.mapToDouble(c -> this.sharedSweep(ranks, sinkRank, chunks[c], chunks[c + 1]))
+					.max().orElse(0);
+		}
+
+		/**
+		 * sweep on ranks shared with other threads: the same update, with
+		 * every rank read and written as its bits with an opaque access.
+		 *
+		 * @return the biggest change among them
+		 */
+		private double sharedSweep(AtomicLongArray ranks, double sinkRank, int from, int to) {
+			double change = 0;
+			for(int i = from; i < to; i++) {
+				double rank = teleport;
+				if(!blacklisted[i]) { //no rank flows into a blacklisted page
+					double incoming = 0;
+					for(int k = inOffsets[i]; k < inOffsets[i + 1]; k++) { //sum over the sources of incoming links
+						int source = inSources[k];
+						incoming += Double.longBitsToDouble(ranks.getOpaque(source)) * inverseOutgoing[source];
+					}
+					rank += _dampingFactor * incoming + this.sinkShare(sinkRank);
+				}
+				double old = Double.longBitsToDouble(ranks.getOpaque(i)); //only this thread writes page i
+				if(sinks[i]) {
+					sinkRank += rank - old;
+				}
+				change = Math.max(change, Math.abs(rank - old));
+				ranks.setOpaque(i, Double.doubleToRawLongBits(rank));
+			}
+			return change;
+		}
+
+		/**
+		 * Updates the ranks of the pages from to to - 1 in place, in order,
+		 * so each page uses the ranks already updated in this sweep. The
+		 * sinks' total rank starts at sinkRank and follows the sinks as they
+		 * are updated.
+		 *
+		 * @return the biggest change among them
+		 */
+		private double sweep(double[] ranks, double sinkRank, int from, int to) {
+			double change = 0;
+			for(int i = from; i < to; i++) {
+				double rank = teleport;
+				if(!blacklisted[i]) { //no rank flows into a blacklisted page
+					double incoming = 0;
+					for(int k = inOffsets[i]; k < inOffsets[i + 1]; k++) { //sum over the sources of incoming links
+						int source = inSources[k];
+						incoming += ranks[source] * inverseOutgoing[source];
+					}
+					rank += _dampingFactor * incoming + this.sinkShare(sinkRank);
+				}
+				if(sinks[i]) {
+					sinkRank += rank - ranks[i];
+				}
+				change = Math.max(change, Math.abs(rank - ranks[i]));
+				ranks[i] = rank;
+			}
+			return change;
+		}
+
+		/**
+		 * Sets the new rank of the pages from to to - 1.
+		 *
+		 * @return the biggest change among them
+		 */
+		private double update(double[] previousRanks, double[] currentRanks, double sinkShare, int from, int to) {
+			double change = 0;
+			for(int i = from; i < to; i++) {
+				double rank = teleport;
+				if(!blacklisted[i]) { //no rank flows into a blacklisted page
+					double incoming = 0;
+					for(int k = inOffsets[i]; k < inOffsets[i + 1]; k++) { //sum over the sources of incoming links
+						incoming += shares[inSources[k]];
+					}
+					rank += _dampingFactor * incoming + sinkShare;
+				}
+				currentRanks[i] = rank;
+				change = Math.max(change, Math.abs(rank - previousRanks[i]));
+			}
+			return change;
+		}
 
+		/**
+		 * Works out what each page from from to to - 1 sends along each of
+		 * its links.
+		 */
+		private void computeShares(double[] previousRanks, int from, int to) {
+			for(int j = from; j < to; j++) {
+				shares[j] = previousRanks[j] * inverseOutgoing[j];
+			}
+		}
+
+		/**
+		 * Returns the total rank of the sinks from from to to - 1.
+		 */
+		private double sinkRank(double[] previousRanks, int from, int to) {
+			double sinkRank = 0;
+			for(int i = from; i < to; i++) {
+				if(sinks[i]) {
+					sinkRank += previousRanks[i];
+				}
+			}
+			return sinkRank;
+		}
+
+		/**
+		 * Method used to account for sink pages (those with no outgoing
+		 * edges). A sink is treated as if it had an edge to every page
+		 * (itself included), without adding those edges to the graph: each
+		 * page gets DF times the total rank of the sinks, divided by N.
+		 * 
+		 * @return the share of the sinks' rank that every page receives
+		 */
+		private double sinkShare(double sinkRank) {
+			return _dampingFactor * sinkRank / shares.length;
+		}
+
+		/**
+		 * Splits the pages into up to numChunks ranges that each cover about
+		 * the same number of pages plus incoming links.
+		 *
+		 * @return the chunk boundaries, chunk c being pages chunks[c] to chunks[c+1] - 1
+		 */
+		private int[] balancedChunks(int numChunks) {
+			int n = shares.length;
+			long work = (long) n + inSources.length; //one unit per page and per incoming link
+			long perChunk = Math.max(1, (work + numChunks - 1) / numChunks);
+			int[] bounds = new int[numChunks + 1];
+			int count = 0;
+			long done = 0; //work in the chunks closed so far
+			for(int i = 0; i < n; i++) {
+				long upTo = (long) i + 1 + inOffsets[i + 1]; //work of pages 0 to i
+				if(upTo - done >= perChunk && count < numChunks - 1) { //close a chunk after page i
+					bounds[++count] = i + 1;
+					done = upTo;
+				}
+			}
+			if(bounds[count] != n) {
+				bounds[++count] = n;
+			}
+			return Arrays.copyOf(bounds, count + 1);
+		}
+	}
 }
@@ -7,8 +7,14 @@ import org.junit.Test;
 import support.graph.CS16Edge;
 import support.graph.CS16Vertex;
 import support.graph.Graph;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Random;
 
 /**
  * This class tests the functionality of your PageRank algorithm on a
@@ -243,4 +249,198 @@ public class MyPageRankTest {
 		assertEquals(output.get(d), expectedRankD, _epsilon);
 		
 	}
+
+	/*
+	 * Tests that the graph is left exactly as it was (no edges added for the sink B
+	 * or removed around the blacklisted page), so ranking it twice gives the same ranks.
+	 */
+
+	@Test
+	public void testGraphUnchanged() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> evil = adjMatrix.insertVertex("evil.com");
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(a,evil,null);
+		adjMatrix.insertEdge(evil,a,null);
+
+		MyPageRank<String> pr = new MyPageRank<String>();
+		Map<CS16Vertex<String>, Double> first = pr.calcPageRank(adjMatrix);
+
+		int edges = 0;
+		Iterator<CS16Edge<String>> it = adjMatrix.edges();
+		while (it.hasNext()) {
+			it.next();
+			edges++;
+		}
+		assertEquals(edges, 3);
+		assertEquals(adjMatrix.numOutgoingEdges(b), 0);
+		assertTrue(adjMatrix.areAdjacent(a, evil));
+
+		// the blacklisted page only gets the (1-DF)/N share
+		assertEquals(first.get(evil), 0.05, 0.0001);
+
+		Map<CS16Vertex<String>, Double> second = pr.calcPageRank(adjMatrix);
+		assertEquals(first, second);
+	}
+
+	/**
+	 * Ranks a random web of 300 pages, with sinks and a blacklisted page,
+	 * sequentially and in parallel. Both modes do the same rounds, so the
+	 * ranks should agree up to rounding.
+	 */
+	@Test
+	public void testParallelMatchesSequential() {
+		Graph<String> adjMatrix = randomWeb(new Random(22), 300, 1500);
+
+		MyPageRank<String> pr = new MyPageRank<String>();
+		Map<CS16Vertex<String>, Double> sequential = pr.calcPageRank(adjMatrix);
+		pr.setMode(MyPageRank.Mode.PARALLEL);
+		Map<CS16Vertex<String>, Double> parallel = pr.calcPageRank(adjMatrix);
+
+		assertEquals(sequential.size(), parallel.size());
+		for (CS16Vertex<String> v : sequential.keySet()) {
+			assertEquals(sequential.get(v), parallel.get(v), 1e-9);
+		}
+	}
+
+	/**
+	 * Ranks a random web in place with GAUSS_SEIDEL and ASYNC, all modes run
+	 * to a tight error. Every rank should then be within a small fraction of
+	 * 1/N of the sequential one, the blacklisted page still only gets the
+	 * (1-DF)/N share, and the in-place modes should need no more rounds than
+	 * the sequential ones.
+	 */
+	@Test
+	public void testInPlaceModesMatchSequential() {
+		Graph<String> adjMatrix = randomWeb(new Random(23), 300, 1500);
+		double error = 1e-9;
+		double tolerance = 1e-4 / 300; //a hundredth of a percent of the average rank
+
+		MyPageRank<String> pr = new MyPageRank<String>();
+		int[] sequentialRounds = new int[1];
+		Map<CS16Vertex<String>, Double> sequential = pr.calcPageRank(adjMatrix, error, sequentialRounds);
+		assertTrue(sequentialRounds[0] < 100); //converged before the cap
+		double sequentialTotal = 0; //under 1, the blacklisted page's incoming links lose rank
+		for (double rank : sequential.values()) {
+			sequentialTotal += rank;
+		}
+		for (MyPageRank.Mode mode : new MyPageRank.Mode[] {MyPageRank.Mode.GAUSS_SEIDEL, MyPageRank.Mode.ASYNC}) {
+			pr.setMode(mode);
+			int[] rounds = new int[1];
+			Map<CS16Vertex<String>, Double> output = pr.calcPageRank(adjMatrix, error, rounds);
+			assertTrue(mode + " took " + rounds[0] + " rounds, sequential " + sequentialRounds[0],
+					rounds[0] <= sequentialRounds[0]);
+			assertEquals(sequential.size(), output.size());
+			double total = 0;
+			for (CS16Vertex<String> v : sequential.keySet()) {
+				assertEquals(sequential.get(v), output.get(v), tolerance);
+				total += output.get(v);
+				if (v.getVertexName().equals("evil.com")) {
+					assertEquals(output.get(v), 0.15 / 300, 1e-12);
+				}
+			}
+			assertEquals(total, sequentialTotal, 1e-6);
+		}
+	}
+
+	/**
+	 * Ranks a random web, inserts and removes a few links (one page loses all
+	 * its links and becomes a sink) and brings the ranks up to date with
+	 * updatePageRank. Ranked to a tight error before and after the edits, the
+	 * updated ranks should be within the error divided by N of ranking the
+	 * edited graph from scratch, and the pages that gained or lost a link
+	 * should have moved from their old ranks.
+	 */
+	@Test
+	public void testUpdateMatchesFullRun() {
+		Random rand = new Random(24);
+		Graph<String> adjMatrix = randomWeb(rand, 300, 1500);
+		MyPageRank<String> pr = new MyPageRank<String>();
+		Map<CS16Vertex<String>, Double> before = pr.calcPageRank(adjMatrix, 1e-12, null);
+		double tolerance = 2 * 0.01 / 300; //twice the error of MyPageRank divided by N, the unpushed residuals add up
+
+		List<CS16Vertex<String>> pages = new ArrayList<CS16Vertex<String>>(before.keySet());
+		pages.sort(Comparator.comparing(CS16Vertex::getVertexName)); //the same order on every run
+		List<CS16Edge<String>> inserted = new ArrayList<CS16Edge<String>>();
+		List<CS16Edge<String>> removed = new ArrayList<CS16Edge<String>>();
+		// the best ranked page, so the pages it links to lose a lot of rank
+		CS16Vertex<String> sink = Collections.max(pages, Comparator.comparing(before::get));
+		Iterator<CS16Edge<String>> it = adjMatrix.outgoingEdges(sink);
+		while (it.hasNext()) {
+			removed.add(it.next());
+		}
+		for (CS16Edge<String> e : removed) {
+			adjMatrix.removeEdge(e);
+		}
+		for (int i = 0; i < 10; i++) {
+			CS16Vertex<String> from = pages.get(rand.nextInt(pages.size()));
+			CS16Vertex<String> to = pages.get(rand.nextInt(pages.size()));
+			if (from != to && from != sink && !adjMatrix.areAdjacent(from, to)) {
+				inserted.add(adjMatrix.insertEdge(from, to, null));
+			}
+		}
+		// a link added and taken away again is no edit at all
+		CS16Edge<String> undone = adjMatrix.insertEdge(sink, pages.get(2), null);
+		adjMatrix.removeEdge(undone);
+		inserted.add(undone);
+		removed.add(undone);
+
+		Map<CS16Vertex<String>, Double> updated = pr.updatePageRank(adjMatrix, before, inserted, removed);
+		Map<CS16Vertex<String>, Double> full = pr.calcPageRank(adjMatrix, 1e-12, null);
+		assertEquals(full.size(), updated.size());
+		for (CS16Vertex<String> v : full.keySet()) {
+			assertEquals(full.get(v), updated.get(v), tolerance);
+		}
+		for (CS16Edge<String> e : removed) {
+			if (e != undone) {
+				CS16Vertex<String> to = e.getVertexTwo();
+				assertTrue(Math.abs(updated.get(to) - before.get(to)) > tolerance);
+			}
+		}
+
+		// with no edits the ranks stay as they were
+		assertEquals(before, pr.updatePageRank(adjMatrix, before, new ArrayList<CS16Edge<String>>(),
+				new ArrayList<CS16Edge<String>>()));
+	}
+
+	/**
+	 * updatePageRank falls back to a full run when g has a page the old
+	 * ranks do not know, even if the number of pages is the same.
+	 */
+	@Test
+	public void testUpdateWithSwappedPage() {
+		Graph<String> adjMatrix = randomWeb(new Random(25), 50, 200);
+		MyPageRank<String> pr = new MyPageRank<String>();
+		Map<CS16Vertex<String>, Double> before = pr.calcPageRank(adjMatrix);
+
+		CS16Vertex<String> gone = before.keySet().iterator().next();
+		adjMatrix.removeVertex(gone);
+		adjMatrix.insertVertex("newcomer");
+		Map<CS16Vertex<String>, Double> updated = pr.updatePageRank(adjMatrix, before,
+				new ArrayList<CS16Edge<String>>(), new ArrayList<CS16Edge<String>>());
+		assertEquals(pr.calcPageRank(adjMatrix), updated);
+	}
+
+	/**
+	 * Makes a directed graph with numPages pages (one of them evil.com) and
+	 * up to numLinks random links between different pages.
+	 */
+	private static Graph<String> randomWeb(Random rand, int numPages, int numLinks) {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		List<CS16Vertex<String>> pages = new ArrayList<CS16Vertex<String>>();
+		pages.add(adjMatrix.insertVertex("evil.com"));
+		for (int i = 1; i < numPages; i++) {
+			pages.add(adjMatrix.insertVertex("page" + i));
+		}
+		for (int i = 0; i < numLinks; i++) {
+			CS16Vertex<String> from = pages.get(rand.nextInt(numPages));
+			CS16Vertex<String> to = pages.get(rand.nextInt(numPages));
+			if (from != to && !adjMatrix.areAdjacent(from, to)) {
+				adjMatrix.insertEdge(from, to, null);
+			}
+		}
+		return adjMatrix;
+	}
 }
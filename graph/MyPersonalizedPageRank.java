@@ -0,0 +1,219 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.PageRank;
+
+/**
+ * Personalized PageRank: the PageRank of every page for a surfer who, instead
+ * of jumping to any page with probability 1-DF, always jumps back to one of a
+ * set of seed pages (picked uniformly). The ranks say how close each page is
+ * to the seeds, which is what recommendations for one user need. Like
+ * MyPageRank this only works on directed graphs, a sink sends the surfer back
+ * to the seeds, and a blacklisted page gets no rank through links.
+ *
+ * Two approximations are offered, both returning only the pages with a
+ * positive rank (every missing page has rank 0, or close to it):
+ * localPush pushes rank out from the seeds along links and never looks at the
+ * rest of the graph, and monteCarlo counts where random surfers stop, with
+ * the surfers spread over all cores. monteCarlo also takes a GraphSnapshot,
+ * so that many queries can share one.
+ */
+public class MyPersonalizedPageRank<V> {
+
+    private static final double _dampingFactor = 0.85; //same as MyPageRank
+    // walk batches per core in monteCarlo
+    private static final int CHUNKS_PER_CORE = 4;
+
+    /**
+     * Approximates the personalized PageRank of the seeds with forward push.
+     * Every page holds a rank and a residual (rank that reached it but has
+     * not moved on yet); the seeds start with all the residual. A page whose
+     * residual is more than epsilon times its out-degree keeps 1-DF of it as
+     * rank and passes the rest evenly along its links; a sink passes it back
+     * to the seeds. When no page is left to push, every residual is at most
+     * epsilon times its page's out-degree; the ranks never overshoot, and the
+     * rank still missing is what those residuals would have passed on.
+     *
+     * Every push moves at least epsilon*(1-DF) of rank for each link it goes
+     * over, so the pushes go over O(1/(epsilon*(1-DF))) links in total, no
+     * matter how big the graph is. Each push also walks the outgoing edges
+     * of its page, which on an AdjacencyMatrixGraph costs a row scan.
+     *
+     * @param g the graph, which is only read
+     * @param seeds the pages the surfer jumps back to
+     * @param epsilon the residual allowed per outgoing link
+     * @return every page with a positive rank, mapped to its rank
+     * @throws IllegalArgumentException
+     *             Thrown when there are no seeds or epsilon is not positive.
+     */
+    public Map<CS16Vertex<V>, Double> localPush(Graph<V> g, Collection<CS16Vertex<V>> seeds, double epsilon) {
+    	if(seeds.isEmpty() || !(epsilon > 0)) {
+    		throw new IllegalArgumentException("Need at least one seed and a positive epsilon");
+    	}
+
+    	Map<CS16Vertex<V>, Double> ranks = new HashMap<CS16Vertex<V>, Double>();
+    	Map<CS16Vertex<V>, Double> residuals = new HashMap<CS16Vertex<V>, Double>();
+    	ArrayDeque<CS16Vertex<V>> queue = new ArrayDeque<CS16Vertex<V>>(); //pages whose residual is over the threshold
+    	for(CS16Vertex<V> seed : seeds) { //the jump to a seed also reaches a blacklisted seed
+    		residuals.merge(seed, 1.0 / seeds.size(), Double::sum);
+    	}
+    	queue.addAll(residuals.keySet());
+
+    	while(!queue.isEmpty()) {
+    		CS16Vertex<V> page = queue.poll();
+    		Double residual = residuals.remove(page);
+    		if(residual == null) { //queued twice, already pushed
+    			continue;
+    		}
+    		ranks.merge(page, (1 - _dampingFactor) * residual, Double::sum);
+    		int outgoing = g.numOutgoingEdges(page); //only works on a directed graph
+    		if(outgoing == 0) { //a sink sends the surfer back to the seeds
+    			this.toSeeds(g, seeds, _dampingFactor * residual, residuals, queue, epsilon);
+    			continue;
+    		}
+    		double share = _dampingFactor * residual / outgoing;
+    		Iterator<CS16Edge<V>> it = g.outgoingEdges(page);
+    		while(it.hasNext()) {
+    			this.addResidual(g, it.next().getVertexTwo(), share, residuals, queue, epsilon);
+    		}
+    	}
+    	return ranks;
+    }
+
+    /**
+     * Estimates the personalized PageRank of the seeds with random walks, on
+     * a GraphSnapshot of g. Building the snapshot takes O(|V| + |E|) time, so
+     * to answer many queries on the same graph build it once and call the
+     * overload that takes it.
+     *
+     * @param g the graph, which is only read
+     * @param seeds the pages the surfer jumps back to
+     * @param walks the number of random walks
+     * @return every page where some walk stopped, mapped to its rank
+     * @throws IllegalArgumentException
+     *             Thrown when there are no seeds or walks is not positive.
+     */
+    public Map<CS16Vertex<V>, Double> monteCarlo(Graph<V> g, Collection<CS16Vertex<V>> seeds, int walks) {
+    	if(seeds.isEmpty() || walks <= 0) { //fail before reading the graph
+    		throw new IllegalArgumentException("Need at least one seed and a positive number of walks");
+    	}
+    	return this.monteCarlo(GraphSnapshot.of(g), seeds, walks);
+    }
+
+    /**
+     * Estimates the personalized PageRank of the seeds with random walks.
+     * Each walk starts at a random seed; at every step it stops with
+     * probability 1-DF and otherwise follows a random outgoing link, or jumps
+     * to a random seed from a sink. The rank of a page is the fraction of
+     * walks that stop there. A walk that enters a blacklisted page is
+     * dropped, since no rank reaches such a page through links (a walk may
+     * still start at a blacklisted seed).
+     *
+     * The snapshot picks a random link in O(1) time. The walks are split into
+     * batches run in parallel on the common ForkJoinPool, each with its own
+     * ThreadLocalRandom and a map counting the stops at each page it reached,
+     * and the maps are merged at the end. Nothing is sized by the graph, and
+     * a walk takes 1/(1-DF) steps on average, so a query runs in O(walks)
+     * time and space. The error of each rank shrinks like 1/sqrt(walks).
+     *
+     * @param snapshot a snapshot of the graph, which is only read
+     * @param seeds the pages the surfer jumps back to
+     * @param walks the number of random walks
+     * @return every page where some walk stopped, mapped to its rank
+     * @throws IllegalArgumentException
+     *             Thrown when there are no seeds or walks is not positive.
+     */
+    public Map<CS16Vertex<V>, Double> monteCarlo(GraphSnapshot<V> snapshot, Collection<CS16Vertex<V>> seeds, int walks) {
+    	if(seeds.isEmpty() || walks <= 0) {
+    		throw new IllegalArgumentException("Need at least one seed and a positive number of walks");
+    	}
+
+    	int[] offsets = snapshot.outOffsets();
+    	int[] targets = snapshot.outTargets();
+    	int[] start = new int[seeds.size()]; //dense indices of the seeds
+    	int s = 0;
+    	for(CS16Vertex<V> seed : seeds) {
+    		start[s++] = snapshot.indexOf(seed);
+    	}
+
+    	//walks per batch, the first walks % numChunks batches take one more
+    	int numChunks = Math.min(walks, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+    	Map<Integer, Integer> stops = IntStream.range(0, numChunks).parallel().mapToObj(c -> {
+    		ThreadLocalRandom random = ThreadLocalRandom.current();
+    		Map<Integer, Integer> counts = new HashMap<Integer, Integer>(); //walks of this batch that stopped at each page
+    		int batch = walks / numChunks + (c < walks % numChunks ? 1 : 0);
+    		for(int w = 0; w < batch; w++) {
+    			int page = start[random.nextInt(start.length)];
+    			while(random.nextDouble() < _dampingFactor) { //otherwise the walk stops here
+    				int outgoing = offsets[page + 1] - offsets[page];
+    				page = (outgoing == 0) ? start[random.nextInt(start.length)] //a sink jumps back to a seed
+    						: targets[offsets[page] + random.nextInt(outgoing)];
+    				if(PageRank.blacklist.contains(snapshot.vertex(page).getVertexName())) { //the walk carries no rank into this page
+    					page = -1;
+    					break;
+    				}
+    			}
+    			if(page >= 0) {
+    				counts.merge(page, 1, Integer::sum);
+    			}
+    		}
+    		return counts;
+    	}).reduce((a, b) -> {
+    		if(a.size() < b.size()) { //merge the smaller map into the bigger one
+    			Map<Integer, Integer> t = a;
+    			a = b;
+    			b = t;
+    		}
+    		for(Map.Entry<Integer, Integer> e : b.entrySet()) {
+    			a.merge(e.getKey(), e.getValue(), Integer::sum);
+    		}
+    		return a;
+    	}).get();
+
+    	Map<CS16Vertex<V>, Double> ranks = new HashMap<CS16Vertex<V>, Double>();
+    	for(Map.Entry<Integer, Integer> e : stops.entrySet()) {
+    		ranks.put(snapshot.vertex(e.getKey()), (double) e.getValue() / walks);
+    	}
+    	return ranks;
+    }
+
+    /**
+     * Spreads residual from a sink evenly over the seeds.
+     */
+    private void toSeeds(Graph<V> g, Collection<CS16Vertex<V>> seeds, double residual,
+    		Map<CS16Vertex<V>, Double> residuals, ArrayDeque<CS16Vertex<V>> queue, double epsilon) {
+    	double share = residual / seeds.size();
+    	for(CS16Vertex<V> seed : seeds) {
+    		this.addResidual(g, seed, share, residuals, queue, epsilon);
+    	}
+    }
+
+    /**
+     * Adds residual to a page and queues the page once its residual is more
+     * than epsilon times its out-degree (epsilon for a sink). A blacklisted
+     * page gets no rank through links, so the residual is dropped.
+     */
+    private void addResidual(Graph<V> g, CS16Vertex<V> page, double residual,
+    		Map<CS16Vertex<V>, Double> residuals, ArrayDeque<CS16Vertex<V>> queue, double epsilon) {
+    	if(PageRank.blacklist.contains(page.getVertexName())) {
+    		return;
+    	}
+    	double before = residuals.getOrDefault(page, 0.0);
+    	double total = before + residual;
+    	residuals.put(page, total);
+    	double threshold = epsilon * Math.max(g.numOutgoingEdges(page), 1);
+    	if(total > threshold && before <= threshold) { //just went over, queue it once
+    		queue.add(page);
+    	}
+    }
+}
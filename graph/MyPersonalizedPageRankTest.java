@@ -0,0 +1,168 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class tests the personalized PageRank approximations (local push
+ * and Monte Carlo) on directed AdjacencyMatrixGraphs.
+ */
+public class MyPersonalizedPageRankTest {
+
+	// This is your margin of error for the Monte Carlo estimates
+	double _epsilon = 0.01;
+
+	/**
+	 * A cycle of three pages with the surfer always jumping back to A. The
+	 * exact ranks are (1-DF)/(1-DF^3) for A, DF times that for B and DF^2
+	 * times that for C, and they total 1.
+	 */
+	@Test
+	public void testPushOnCycle() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(b,c,null);
+		adjMatrix.insertEdge(c,a,null);
+
+		MyPersonalizedPageRank<String> ppr = new MyPersonalizedPageRank<String>();
+		Map<CS16Vertex<String>, Double> output = ppr.localPush(adjMatrix, Collections.singletonList(a), 1e-9);
+
+		double expectedRankA = 0.15 / (1 - 0.85 * 0.85 * 0.85);
+		assertEquals(output.get(a), expectedRankA, 1e-6);
+		assertEquals(output.get(b), 0.85 * expectedRankA, 1e-6);
+		assertEquals(output.get(c), 0.85 * 0.85 * expectedRankA, 1e-6);
+	}
+
+	/**
+	 * Two separate cycles. Pushing from a seed in the first one should never
+	 * give rank to the pages of the second one.
+	 */
+	@Test
+	public void testPushStaysLocal() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		CS16Vertex<String> b = adjMatrix.insertVertex("B");
+		CS16Vertex<String> c = adjMatrix.insertVertex("C");
+		CS16Vertex<String> d = adjMatrix.insertVertex("D");
+		adjMatrix.insertEdge(a,b,null);
+		adjMatrix.insertEdge(b,a,null);
+		adjMatrix.insertEdge(c,d,null);
+		adjMatrix.insertEdge(d,c,null);
+
+		MyPersonalizedPageRank<String> ppr = new MyPersonalizedPageRank<String>();
+		Map<CS16Vertex<String>, Double> output = ppr.localPush(adjMatrix, Collections.singletonList(a), 1e-6);
+
+		assertEquals(output.keySet(), new HashSet<CS16Vertex<String>>(Arrays.asList(a, b)));
+		assertEquals(output.get(a) + output.get(b), 1, 1e-4);
+	}
+
+	/**
+	 * On a random web with sinks and a blacklisted page, the Monte Carlo
+	 * estimate should be within epsilon of a fine local push, and the
+	 * blacklisted page (not a seed) should get no rank from either.
+	 */
+	@Test
+	public void testMonteCarloMatchesPush() {
+		Random rand = new Random(25);
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		List<CS16Vertex<String>> pages = new ArrayList<CS16Vertex<String>>();
+		pages.add(adjMatrix.insertVertex("evil.com"));
+		for (int i = 1; i < 200; i++) {
+			pages.add(adjMatrix.insertVertex("page" + i));
+		}
+		for (int i = 0; i < 600; i++) {
+			CS16Vertex<String> from = pages.get(rand.nextInt(pages.size()));
+			CS16Vertex<String> to = pages.get(rand.nextInt(pages.size()));
+			if (from != to && !adjMatrix.areAdjacent(from, to)) {
+				adjMatrix.insertEdge(from, to, null);
+			}
+		}
+		List<CS16Vertex<String>> seeds = Arrays.asList(pages.get(1), pages.get(2));
+
+		MyPersonalizedPageRank<String> ppr = new MyPersonalizedPageRank<String>();
+		Map<CS16Vertex<String>, Double> push = ppr.localPush(adjMatrix, seeds, 1e-8);
+		Map<CS16Vertex<String>, Double> walks = ppr.monteCarlo(adjMatrix, seeds, 200000);
+
+		for (CS16Vertex<String> v : pages) {
+			assertEquals(push.getOrDefault(v, 0.0), walks.getOrDefault(v, 0.0), _epsilon);
+		}
+		assertFalse(push.containsKey(pages.get(0)));
+		assertFalse(walks.containsKey(pages.get(0)));
+	}
+
+	/**
+	 * One snapshot answers queries for different seeds, each close to a
+	 * fine localPush on the graph itself.
+	 */
+	@Test
+	public void testMonteCarloOnSharedSnapshot() {
+		Random rand = new Random(26);
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		List<CS16Vertex<String>> pages = new ArrayList<CS16Vertex<String>>();
+		for (int i = 0; i < 300; i++) {
+			pages.add(adjMatrix.insertVertex("page" + i));
+		}
+		for (int i = 0; i < 900; i++) {
+			CS16Vertex<String> from = pages.get(rand.nextInt(pages.size()));
+			CS16Vertex<String> to = pages.get(rand.nextInt(pages.size()));
+			if (from != to && !adjMatrix.areAdjacent(from, to)) {
+				adjMatrix.insertEdge(from, to, null);
+			}
+		}
+		GraphSnapshot<String> snapshot = GraphSnapshot.of(adjMatrix);
+
+		MyPersonalizedPageRank<String> ppr = new MyPersonalizedPageRank<String>();
+		for (int q = 0; q < 3; q++) {
+			List<CS16Vertex<String>> seeds = Collections.singletonList(pages.get(rand.nextInt(pages.size())));
+			Map<CS16Vertex<String>, Double> push = ppr.localPush(adjMatrix, seeds, 1e-8);
+			Map<CS16Vertex<String>, Double> walks = ppr.monteCarlo(snapshot, seeds, 100000);
+			double total = 0;
+			for (CS16Vertex<String> v : pages) {
+				assertEquals(push.getOrDefault(v, 0.0), walks.getOrDefault(v, 0.0), _epsilon);
+				total += walks.getOrDefault(v, 0.0);
+			}
+			assertEquals(1.0, total, 1e-9); //no blacklisted page, so every walk stops somewhere
+		}
+	}
+
+	/**
+	 * Both approximations need a seed, and a positive epsilon or number of walks.
+	 */
+	@Test
+	public void testBadArguments() {
+		Graph<String> adjMatrix = new AdjacencyMatrixGraph<String>(true);
+		CS16Vertex<String> a = adjMatrix.insertVertex("A");
+		MyPersonalizedPageRank<String> ppr = new MyPersonalizedPageRank<String>();
+		List<CS16Vertex<String>> none = Collections.emptyList();
+
+		try {
+			ppr.localPush(adjMatrix, none, 0.001);
+			fail("no seeds");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			ppr.localPush(adjMatrix, Collections.singletonList(a), 0);
+			fail("epsilon of 0");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			ppr.monteCarlo(adjMatrix, Collections.singletonList(a), 0);
+			fail("no walks");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -1,106 +1,325 @@
-package graph;
-
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Random;
-import java.util.Vector;
-
-import net.datastructures.Entry;
-import support.graph.CS16AdaptableHeapPriorityQueue;
-import support.graph.CS16Edge;
-import support.graph.CS16GraphVisualizer;
-import support.graph.CS16Vertex;
-import support.graph.Graph;
-import support.graph.MinSpanForest;
-
-/**
- * In this class you will implement a slightly modified version
- * of the Prim-Jarnik algorithm for generating Minimum Spanning trees.
- * The original version of this algorithm will only generate the 
- * minimum spanning tree of the connected vertices in a graph, given
- * a starting vertex. Like Kruskal's, this algorithm can be modified to 
- * produce a minimum spanning forest with very little effort.
- *
- * See the handout for details on Prim-Jarnik's algorithm.
- * Like Kruskal's algorithm this algorithm makes extensive use of 
- * the decorator pattern, so make sure you know it.
- */
-public class MyPrimJarnik<V> implements MinSpanForest<V> {
-
-    /** 
-     * This method implements Prim-Jarnik's algorithm and extends 
-     * it slightly to account for disconnected graphs. You must return 
-     * the collection of edges of the Minimum Spanning Forest (MSF) for 
-     * the given graph, g.
-     * 
-     * This algorithm must run in O((|E| + |V|)log(|V|)) time
-     * @param g Your graph
-     * @param v Only used if you implement the optional animation.
-     * @return returns a data structure that contains the edges of your MSF that implements java.util.Collection
-     */
-    @Override
-    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
-    	
-    	//All decorators handled here
-    	//store the cost of a vertex
-    	MyDecorator<CS16Vertex<V>, Integer> costDecorator = new MyDecorator<CS16Vertex<V>, Integer>();
-    	//stores the previous edge of a vertex
-    	MyDecorator<CS16Vertex<V>, CS16Edge<V>> previousDecorator = new MyDecorator<CS16Vertex<V>, CS16Edge<V>>(); 
-    	//stores if the edge is already included in MST
-    	MyDecorator<CS16Edge<V>, Boolean> inMST = new MyDecorator<CS16Edge<V>, Boolean>();
-    	//stores each entry as int and Vertex
-    	MyDecorator<CS16Vertex<V>, Entry<Integer, CS16Vertex<V>>> entryDecorator = new MyDecorator<CS16Vertex<V>, Entry<Integer, CS16Vertex<V>>>();
-        	
-    	//Setting the HeapPriorityQueue and filling the HPQ with each vertex using the g.ierator() 
-    	Iterator<CS16Vertex<V>> iterator = g.vertices();
-    	CS16AdaptableHeapPriorityQueue<Integer, CS16Vertex<V>> HPQ = new CS16AdaptableHeapPriorityQueue<Integer, CS16Vertex<V>>();
-    	//while there is another vertex in the iterator
-    	while (iterator.hasNext()) {
-    		CS16Vertex<V> next = iterator.next(); //store the vertex
-    		costDecorator.setDecoration(next, Integer.MAX_VALUE); //set the decoration of the vertex to max(inf)
-    		HPQ.insert(0, next); //insert the vertex in the HPQ with the key 0
-    		entryDecorator.setDecoration(next, HPQ.min()); //set the entry decoration to the minimum in the HPQ
-    		HPQ.replaceKey(entryDecorator.getDecoration(next), Integer.MAX_VALUE); //replace HPQ decoration key to max(inf)
-    	}
-    	
-    	//loop while the HPQ is not empty
-    	while(HPQ.size() != 0) {
-    		CS16Vertex<V> v = HPQ.removeMin().getValue(); //take the minimum vertex from HPQ
-    		entryDecorator.removeDecoration(v); //remove the entry decoration from vertex 
-    		
-    		if(previousDecorator.hasDecoration(v)) { //check if previous decorator exists
-    			inMST.setDecoration(previousDecorator.getDecoration(v), true); //if so, set that edge exists in MST
-    		}
-    		Iterator<CS16Edge<V>> incomingEdges = g.incomingEdges(v); //iterator to store all incoming edges at the specific vertex removed
-    		
-    		while(incomingEdges.hasNext()) { //iterate through incomingEdges
-    			CS16Edge<V> edge = incomingEdges.next(); //store the  incoming edge
-    			CS16Vertex<V> u = g.opposite(v, edge); //find the opposite edge and store in variable
-    				
-    			if(costDecorator.getDecoration(u) > edge.element()) { //if opposite's cost is greater than the edge
-    				costDecorator.setDecoration(u, edge.element()); //set the decoration to the edge
-   					previousDecorator.setDecoration(u, edge); //previous edge is not edge
-    				
-   					if(entryDecorator.hasDecoration(u)) { //if entry has a decoration
-        				HPQ.replaceKey(entryDecorator.getDecoration(u), edge.element()); //replace the HPQ entry with the edge
-       				}
-    			}
-    				
-    		}
-    	}
-  
-    	Vector<CS16Edge<V>> MST = new Vector<>(); //create an MST
-    	Iterator<CS16Edge<V>> edge = g.edges(); //store all edges of graph
-    	
-    	while(edge.hasNext()) { //iterate through edges
-    		CS16Edge<V> e = edge.next(); //store next edge e
-    		
-    		if(inMST.hasDecoration(e) && inMST.getDecoration(e)) { //check if edge in MST and its decoration is edge e
-    			MST.add(e); //add to MST
-    		}
-    	}
-    	
-        return MST; 
-    
-      }
-    }
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import net.datastructures.Entry;
+import support.graph.CS16AdaptableHeapPriorityQueue;
+import support.graph.CS16Edge;
+import support.graph.CS16GraphVisualizer;
+import support.graph.CS16Vertex;
+import support.graph.Graph;
+import support.graph.MinSpanForest;
+
+/**
+ * In this class you will implement a slightly modified version
+ * of the Prim-Jarnik algorithm for generating Minimum Spanning trees.
+ * The original version of this algorithm will only generate the 
+ * minimum spanning tree of the connected vertices in a graph, given
+ * a starting vertex. Like Kruskal's, this algorithm can be modified to 
+ * produce a minimum spanning forest with very little effort.
+ *
+ * See the handout for details on Prim-Jarnik's algorithm.
+ * Like Kruskal's algorithm this algorithm makes extensive use of 
+ * the decorator pattern, so make sure you know it.
+ */
+public class MyPrimJarnik<V> implements MinSpanForest<V> {
+
+    /**
+     * The priority queue genMinSpanForest runs on.
+     *
+     * ADAPTABLE_HEAP is the CS16AdaptableHeapPriorityQueue with one Entry per
+     * vertex, INDEXED_HEAP is an IndexedIntHeap keyed by vertex number with
+     * primitive keys, and ARRAY_SCAN is the classic O(|V|^2) Prim that keeps a
+     * distance array and finds the next vertex with a linear scan (only on an
+     * AdjacencyMatrixGraph, other graphs use INDEXED_HEAP). AUTO picks
+     * ARRAY_SCAN for dense matrix graphs and INDEXED_HEAP for everything else.
+     */
+    public enum Engine {
+        ADAPTABLE_HEAP, INDEXED_HEAP, ARRAY_SCAN, AUTO
+    }
+
+    //the engine used by genMinSpanForest
+    private Engine _engine;
+    //where the steps of a run are recorded, null for none
+    private StepRecorder<V> _recorder;
+
+    public MyPrimJarnik() {
+    	_engine = Engine.AUTO; //pick per graph
+    	_recorder = null; //headless by default
+    }
+
+    /**
+     * Sets the priority queue used by genMinSpanForest. The result is a
+     * minimum spanning forest with every engine.
+     *
+     * @param engine the engine to use
+     */
+    public void setEngine(Engine engine) {
+    	_engine = engine;
+    }
+
+    /**
+     * Sets the recorder that receives every extracted vertex, relaxed edge and
+     * added edge of the following runs, so the UI can replay them later. With
+     * null (the default) nothing is recorded and each step costs one null
+     * check.
+     *
+     * @param recorder the recorder to fill, or null
+     */
+    public void setRecorder(StepRecorder<V> recorder) {
+    	_recorder = recorder;
+    }
+
+    /** 
+     * This method implements Prim-Jarnik's algorithm and extends 
+     * it slightly to account for disconnected graphs. You must return 
+     * the collection of edges of the Minimum Spanning Forest (MSF) for 
+     * the given graph, g.
+     * 
+     * This algorithm must run in O((|E| + |V|)log(|V|)) time
+     * @param g Your graph
+     * @param v Only used if you implement the optional animation.
+     * @return returns a data structure that contains the edges of your MSF that implements java.util.Collection
+     */
+    @Override
+    public Collection<CS16Edge<V>> genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer) {
+    	Collection<CS16Edge<V>> MSF = new ArrayList<>(); //edges arrive as their vertices are finished
+    	this.genMinSpanForest(g, visualizer, MSF::add);
+    	return MSF;
+    }
+
+    /**
+     * Runs Prim-Jarnik on g and hands every edge of the Minimum Spanning
+     * Forest to sink as soon as the vertex it leads to is finished, instead of
+     * collecting the forest first. The next stage can start on the first
+     * edges while the rest of the forest is still being built, and no pass
+     * over all the edges of the graph is needed at the end.
+     *
+     * This algorithm must run in O((|E| + |V|)log(|V|)) time
+     * @param g Your graph
+     * @param visualizer Only used if you implement the optional animation.
+     * @param sink receives each MSF edge once
+     */
+    public void genMinSpanForest(Graph<V> g, CS16GraphVisualizer<V> visualizer, Consumer<? super CS16Edge<V>> sink) {
+    	
+    	if(g instanceof AdjacencyMatrixGraph
+    			&& (_engine == Engine.ARRAY_SCAN || (_engine == Engine.AUTO && this.isDense(g)))) {
+    		this.arrayScanForest((AdjacencyMatrixGraph<V>) g, sink);
+    		return;
+    	}
+    	if(_engine != Engine.ADAPTABLE_HEAP) { //AUTO on a sparse graph goes to the indexed heap
+    		this.indexedHeapForest(g, sink);
+    		return;
+    	}
+    	
+    	//All decorators handled here, kept in arrays indexed by vertex number
+    	int capacity = g.getNumVertices();
+    	//store the cost of a vertex
+    	ArrayDecorator.Ints<CS16Vertex<V>> costDecorator = ArrayDecorator.Ints.forVertices(capacity);
+    	//stores the previous edge of a vertex
+    	ArrayDecorator<CS16Vertex<V>, CS16Edge<V>> previousDecorator = ArrayDecorator.forVertices(capacity); 
+    	//stores each entry as int and Vertex
+    	ArrayDecorator<CS16Vertex<V>, Entry<Integer, CS16Vertex<V>>> entryDecorator = ArrayDecorator.forVertices(capacity);
+        	
+    	//Setting the HeapPriorityQueue and filling the HPQ with each vertex using the g.ierator() 
+    	Iterator<CS16Vertex<V>> iterator = g.vertices();
+    	CS16AdaptableHeapPriorityQueue<Integer, CS16Vertex<V>> HPQ = new CS16AdaptableHeapPriorityQueue<Integer, CS16Vertex<V>>();
+    	//while there is another vertex in the iterator
+    	while (iterator.hasNext()) {
+    		CS16Vertex<V> next = iterator.next(); //store the vertex
+    		costDecorator.setInt(next, Integer.MAX_VALUE); //set the decoration of the vertex to max(inf)
+    		HPQ.insert(0, next); //insert the vertex in the HPQ with the key 0
+    		entryDecorator.setDecoration(next, HPQ.min()); //set the entry decoration to the minimum in the HPQ
+    		HPQ.replaceKey(entryDecorator.getDecoration(next), Integer.MAX_VALUE); //replace HPQ decoration key to max(inf)
+    	}
+    	
+    	//on a matrix graph, one cursor is reused for every vertex instead of a new iterator each time
+    	AdjacencyMatrixGraph<V>.EdgeCursor cursor = null;
+    	if(g instanceof AdjacencyMatrixGraph) {
+    		cursor = ((AdjacencyMatrixGraph<V>) g).newIncomingCursor();
+    	}
+    	
+    	StepRecorder<V> recorder = _recorder; //null when nobody watches
+    	
+    	//loop while the HPQ is not empty
+    	while(HPQ.size() != 0) {
+    		CS16Vertex<V> v = HPQ.removeMin().getValue(); //take the minimum vertex from HPQ
+    		entryDecorator.removeDecoration(v); //remove the entry decoration from vertex 
+    		if(recorder != null) {
+    			recorder.vertexExtracted(v);
+    		}
+    		
+    		if(previousDecorator.hasDecoration(v)) { //check if previous decorator exists
+    			sink.accept(previousDecorator.getDecoration(v)); //if so, the edge into v is in the MST
+    			if(recorder != null) {
+    				recorder.edgeAdded(previousDecorator.getDecoration(v));
+    			}
+    		}
+    		//iterator to store all incoming edges at the specific vertex removed
+    		Iterator<CS16Edge<V>> incomingEdges = (cursor != null) ? cursor.reset(v) : g.incomingEdges(v);
+    		
+    		while(incomingEdges.hasNext()) { //iterate through incomingEdges
+    			CS16Edge<V> edge = incomingEdges.next(); //store the  incoming edge
+    			CS16Vertex<V> u = g.opposite(v, edge); //find the opposite edge and store in variable
+    			//on a matrix graph the weight comes from the int weight store, no unboxing
+    			int weight = (cursor != null) ? cursor.lastWeight() : edge.element();
+    				
+    			//only vertices still in the HPQ are relaxed, so the previous edge of a finished vertex stays put
+    			if(entryDecorator.hasDecoration(u) && costDecorator.getInt(u) > weight) { //if opposite's cost is greater than the edge
+    				costDecorator.setInt(u, weight); //set the decoration to the edge
+   					previousDecorator.setDecoration(u, edge); //previous edge is not edge
+   					if(recorder != null) {
+   						recorder.edgeRelaxed(edge, weight);
+   					}
+    				
+   					HPQ.replaceKey(entryDecorator.getDecoration(u), weight); //replace the HPQ entry with the edge
+    			}
+    				
+    		}
+    	}
+      }
+
+    /**
+     * Prim-Jarnik on an IndexedIntHeap: the handles are vertex numbers and the
+     * keys are plain ints, so the queue never allocates an Entry and a vertex
+     * is found in the heap through the position array instead of a decorator.
+     *
+     * This runs in O((|E| + |V|)log(|V|)) time.
+     */
+    @SuppressWarnings("unchecked")
+    private void indexedHeapForest(Graph<V> g, Consumer<? super CS16Edge<V>> sink) {
+    	int capacity = g.getNumVertices();
+    	//the vertex with each number, so heap handles can be turned back into vertices
+    	CS16Vertex<V>[] byNumber = new CS16Vertex[Math.max(capacity, 1)];
+    	ArrayDecorator<CS16Vertex<V>, CS16Edge<V>> previousDecorator = ArrayDecorator.forVertices(capacity);
+    	IndexedIntHeap heap = new IndexedIntHeap(capacity);
+    	
+    	Iterator<CS16Vertex<V>> iterator = g.vertices();
+    	while(iterator.hasNext()) {
+    		CS16Vertex<V> next = iterator.next();
+    		int num = next.getVertexNumber();
+    		if(num >= byNumber.length) { //a hole in the numbering, make room
+    			byNumber = Arrays.copyOf(byNumber, Math.max(num + 1, byNumber.length * 2));
+    		}
+    		byNumber[num] = next;
+    		heap.insert(num, Integer.MAX_VALUE); //every vertex starts at infinity
+    	}
+    	
+    	AdjacencyMatrixGraph<V>.EdgeCursor cursor = null;
+    	if(g instanceof AdjacencyMatrixGraph) {
+    		cursor = ((AdjacencyMatrixGraph<V>) g).newIncomingCursor();
+    	}
+    	
+    	StepRecorder<V> recorder = _recorder; //null when nobody watches
+    	while(!heap.isEmpty()) {
+    		CS16Vertex<V> v = byNumber[heap.removeMin()]; //closest vertex to the forest
+    		if(recorder != null) {
+    			recorder.vertexExtracted(v);
+    		}
+    		if(previousDecorator.hasDecoration(v)) {
+    			sink.accept(previousDecorator.getDecoration(v)); //the edge into v is in the MST
+    			if(recorder != null) {
+    				recorder.edgeAdded(previousDecorator.getDecoration(v));
+    			}
+    		}
+    		Iterator<CS16Edge<V>> incomingEdges = (cursor != null) ? cursor.reset(v) : g.incomingEdges(v);
+    		while(incomingEdges.hasNext()) {
+    			CS16Edge<V> edge = incomingEdges.next();
+    			CS16Vertex<V> u = g.opposite(v, edge);
+    			int weight = (cursor != null) ? cursor.lastWeight() : edge.element();
+    			
+    			//decreaseKey only succeeds for a cheaper edge into a vertex still in the heap
+    			if(heap.contains(u.getVertexNumber()) && heap.decreaseKey(u.getVertexNumber(), weight)) {
+    				previousDecorator.setDecoration(u, edge);
+    				if(recorder != null) {
+    					recorder.edgeRelaxed(edge, weight);
+    				}
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Returns true if a heap would cost more than scanning: the heap engines
+     * take about |E|log(|V|) steps and the array scan |V|^2.
+     */
+    private boolean isDense(Graph<V> g) {
+    	long n = g.getNumVertices();
+    	long e = ((AdjacencyMatrixGraph<V>) g).getNumEdges();
+    	int log = 64 - Long.numberOfLeadingZeros(Math.max(n, 1)); //about log2(|V|)
+    	return n > 1 && e * log >= n * n;
+    }
+
+    /**
+     * Prim-Jarnik without a priority queue, for dense matrix graphs. A dist
+     * array holds the cheapest known edge into every vertex, the next vertex
+     * is found with a linear scan, and the weights of its column are read
+     * straight out of the matrix by vertex number. Edge objects are only
+     * looked up once per tree edge, when its vertex is finished.
+     *
+     * This runs in O(|V|^2) time, which beats O(|E|log(|V|)) once the graph
+     * is dense.
+     */
+    @SuppressWarnings("unchecked")
+    private void arrayScanForest(AdjacencyMatrixGraph<V> g, Consumer<? super CS16Edge<V>> sink) {
+    	//the vertex with each number, null for numbers not in use
+    	CS16Vertex<V>[] byNumber = new CS16Vertex[Math.max(g.getNumVertices(), 1)];
+    	Iterator<CS16Vertex<V>> iterator = g.vertices();
+    	while(iterator.hasNext()) {
+    		CS16Vertex<V> next = iterator.next();
+    		int num = next.getVertexNumber();
+    		if(num >= byNumber.length) { //a hole in the numbering, make room
+    			byNumber = Arrays.copyOf(byNumber, Math.max(num + 1, byNumber.length * 2));
+    		}
+    		byNumber[num] = next;
+    	}
+    	int n = byNumber.length;
+    	int[] dist = new int[n]; //cheapest known edge into each vertex
+    	int[] parent = new int[n]; //the other end of that edge
+    	boolean[] done = new boolean[n]; //already in the forest (or not a vertex)
+    	for(int i = 0; i < n; i++) {
+    		dist[i] = Integer.MAX_VALUE;
+    		parent[i] = -1;
+    		done[i] = byNumber[i] == null;
+    	}
+    	
+    	StepRecorder<V> recorder = _recorder; //null when nobody watches
+    	for(int round = g.getNumVertices(); round > 0; round--) {
+    		//linear scan for the closest vertex, an unreached one starts a new tree
+    		int v = -1;
+    		for(int i = 0; i < n; i++) {
+    			if(!done[i] && (v < 0 || dist[i] < dist[v])) {
+    				v = i;
+    			}
+    		}
+    		done[v] = true;
+    		if(recorder != null) {
+    			recorder.vertexExtracted(byNumber[v]);
+    		}
+    		if(parent[v] >= 0) { //the edge from v into its parent, as incomingEdges(parent) found it
+    			CS16Edge<V> edge = g.connectingEdge(byNumber[v], byNumber[parent[v]]);
+    			sink.accept(edge);
+    			if(recorder != null) {
+    				recorder.edgeAdded(edge);
+    			}
+    		}
+    		for(int u = 0; u < n; u++) {
+    			if(!done[u]) {
+    				int weight = g.weightOr(u, v, Integer.MAX_VALUE); //edge u -> v is incoming to v
+    				if(weight < dist[u]) {
+    					dist[u] = weight;
+    					parent[u] = v;
+    					if(recorder != null) { //the scan has no edge objects, only look one up when recording
+    						recorder.edgeRelaxed(g.connectingEdge(byNumber[u], byNumber[v]), weight);
+    					}
+    				}
+    			}
+    		}
+    	}
+    }
+    }
@@ -0,0 +1,197 @@
+package graph;
+
+import support.graph.CS16Edge;
+import support.graph.CS16Vertex;
+
+/**
+ * A fixed-size ring buffer of algorithm steps, for showing a run after it is
+ * done instead of animating it while it happens. The MSF algorithms in this
+ * package record into one when it is set with setRecorder, and the UI replays
+ * the steps at its own pace with drain. Without a recorder an algorithm only
+ * pays a null check per step.
+ *
+ * <p>
+ * All arrays are allocated up front, so recording a step never allocates.
+ * When the buffer is full the oldest step is overwritten and counted in
+ * getDropped, so the capacity should be picked for the graphs being shown.
+ * A recorder is meant to be filled and drained by one thread at a time.
+ * </p>
+ */
+public class StepRecorder<V> {
+
+    /**
+     * The kinds of steps that are recorded.
+     */
+    public enum Step {
+        VERTEX_EXTRACTED, EDGE_RELAXED, EDGE_ADDED
+    }
+
+    /**
+     * Receives the steps of a recorder as it is drained.
+     */
+    public interface Listener<V> {
+
+        /**
+         * A vertex was taken out of the queue and joined the forest.
+         */
+        void vertexExtracted(CS16Vertex<V> v);
+
+        /**
+         * An edge lowered the cost of reaching a vertex to weight.
+         */
+        void edgeRelaxed(CS16Edge<V> e, int weight);
+
+        /**
+         * An edge was added to the forest.
+         */
+        void edgeAdded(CS16Edge<V> e);
+    }
+
+    // kind of each step, as a Step ordinal
+    private final byte[] _steps;
+    // vertex or edge of each step
+    private final Object[] _subjects;
+    // weight of each EDGE_RELAXED step
+    private final int[] _weights;
+    // position of the oldest step and number of steps held
+    private int _head;
+    private int _size;
+    // steps overwritten because the buffer was full
+    private long _dropped;
+
+    /**
+     * Makes an empty recorder that holds up to capacity steps.
+     */
+    public StepRecorder(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        _steps = new byte[capacity];
+        _subjects = new Object[capacity];
+        _weights = new int[capacity];
+        _head = 0;
+        _size = 0;
+        _dropped = 0;
+    }
+
+    /**
+     * Records that v was extracted.
+     */
+    public void vertexExtracted(CS16Vertex<V> v) {
+        this.add(Step.VERTEX_EXTRACTED, v, 0);
+    }
+
+    /**
+     * Records that e was relaxed with the given weight.
+     */
+    public void edgeRelaxed(CS16Edge<V> e, int weight) {
+        this.add(Step.EDGE_RELAXED, e, weight);
+    }
+
+    /**
+     * Records that e was added to the forest.
+     */
+    public void edgeAdded(CS16Edge<V> e) {
+        this.add(Step.EDGE_ADDED, e, 0);
+    }
+
+    /**
+     * Returns the number of steps waiting to be drained.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the number of steps lost because the buffer was full.
+     */
+    public long getDropped() {
+        return _dropped;
+    }
+
+    /**
+     * Returns the kind of the i-th waiting step, 0 being the oldest.
+     */
+    public Step stepAt(int i) {
+        if(i < 0 || i >= _size) {
+            throw new IndexOutOfBoundsException("No waiting step " + i);
+        }
+        return Step.values()[_steps[this.slot(i)]];
+    }
+
+    /**
+     * Hands up to max waiting steps, oldest first, to the listener and removes
+     * them from the buffer. The UI can call this once per frame with a small
+     * max to play a run back at its own speed.
+     *
+     * @return the number of steps handed over
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Listener<V> listener, int max) {
+        int count = Math.min(max, _size);
+        Step[] steps = Step.values();
+        for(int k = 0; k < count; k++) {
+            Object subject = _subjects[_head];
+            switch(steps[_steps[_head]]) {
+                case VERTEX_EXTRACTED:
+                    listener.vertexExtracted((CS16Vertex<V>) subject);
+                    break;
+                case EDGE_RELAXED:
+                    listener.edgeRelaxed((CS16Edge<V>) subject, _weights[_head]);
+                    break;
+                default:
+                    listener.edgeAdded((CS16Edge<V>) subject);
+                    break;
+            }
+            _subjects[_head] = null; //let the vertex or edge go
+            _head = (_head + 1) % _subjects.length;
+            _size--;
+        }
+        return count;
+    }
+
+    /**
+     * Hands every waiting step to the listener and empties the buffer.
+     *
+     * @return the number of steps handed over
+     */
+    public int drain(Listener<V> listener) {
+        return this.drain(listener, _size);
+    }
+
+    /**
+     * Forgets every waiting step.
+     */
+    public void clear() {
+        while(_size > 0) {
+            _subjects[_head] = null;
+            _head = (_head + 1) % _subjects.length;
+            _size--;
+        }
+        _dropped = 0;
+    }
+
+    /**
+     * Stores a step, overwriting the oldest one when the buffer is full.
+     */
+    private void add(Step step, Object subject, int weight) {
+        int tail = this.slot(_size == _steps.length ? 0 : _size);
+        if(_size == _steps.length) { //full, drop the oldest step
+            _head = (_head + 1) % _steps.length;
+            _dropped++;
+        }
+        else {
+            _size++;
+        }
+        _steps[tail] = (byte) step.ordinal();
+        _subjects[tail] = subject;
+        _weights[tail] = weight;
+    }
+
+    /**
+     * Returns the array position of the i-th waiting step.
+     */
+    private int slot(int i) {
+        return (_head + i) % _steps.length;
+    }
+}
@@ -6,7 +6,9 @@ import org.junit.runner.notification.Failure;
 
 public class TestRunner {
    public static void main(String[] args) {
-        Result result = JUnitCore.runClasses(GraphTest.class, MsfTest.class, MyPageRankTest.class);
+        Result result = JUnitCore.runClasses(GraphTest.class, MsfTest.class, MyPageRankTest.class,
+                MyPersonalizedPageRankTest.class, ArrayDecoratorTest.class, MsfToolsTest.class,
+                ConcurrentDisjointSetTest.class);
       for (Failure failure : result.getFailures()) {
          System.out.println("TEST FAILED: " + failure.toString());
       }